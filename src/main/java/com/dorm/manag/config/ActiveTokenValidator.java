@@ -0,0 +1,53 @@
+package com.dorm.manag.config;
+
+import com.dorm.manag.service.TokenRevocationService;
+import com.dorm.manag.service.TokenVersionService;
+import io.jsonwebtoken.Claims;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Checks whether a token with a valid signature is still in force: account
+ * enabled, not logged out, token version current. The one place these rules
+ * live - used by JwtAuthenticationFilter and by the public /api/auth/check.
+ */
+@Component
+@RequiredArgsConstructor
+public class ActiveTokenValidator {
+
+    private final JwtTokenProvider jwtTokenProvider;
+    private final TokenRevocationService tokenRevocationService;
+    private final TokenVersionService tokenVersionService;
+
+    @Getter
+    @RequiredArgsConstructor
+    public enum Rejection {
+        DISABLED(SecurityEventMetrics.DISABLED, "disabled account"),
+        LOGGED_OUT(SecurityEventMetrics.REVOKED, "logged out token"),
+        STALE_VERSION(SecurityEventMetrics.REVOKED, "stale token version");
+
+        /** Reason tag of security.jwt.rejected */
+        private final String metricReason;
+        private final String description;
+    }
+
+    /**
+     * @return why the token must not be accepted, or null when it is active
+     */
+    public Rejection check(Claims claims) {
+        if (!jwtTokenProvider.isEnabled(claims)) {
+            return Rejection.DISABLED;
+        }
+
+        if (tokenRevocationService.isRevoked(claims.getId())) {
+            return Rejection.LOGGED_OUT;
+        }
+
+        if (!tokenVersionService.isCurrent(jwtTokenProvider.getUserId(claims), jwtTokenProvider.getTokenVersion(claims))) {
+            return Rejection.STALE_VERSION;
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,105 @@
+package com.dorm.manag.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import lombok.Data;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.OptionalLong;
+
+/**
+ * Hibernate second-level cache for read-mostly entities, backed by Caffeine
+ * through JCache. Regions and their limits come from app.cache.hibernate.*.
+ * Each region keeps its own JCache statistics, published as cache.gets
+ * (result=hit/miss), cache.puts and cache.removals tagged with the region -
+ * available without Hibernate's generate_statistics.
+ */
+@Configuration
+@EnableConfigurationProperties(HibernateCacheConfig.HibernateCacheProperties.class)
+public class HibernateCacheConfig {
+
+    public static final String USERS = "users";
+    public static final String USERS_NATURAL_ID = "users-natural-id";
+    public static final String RESOURCES = "reservable-resources";
+    public static final String KEYS = "dormitory-keys";
+    public static final String KEYS_NATURAL_ID = "dormitory-keys-natural-id";
+    public static final String RESIDENT_CARDS = "resident-cards";
+    public static final String RESIDENT_CARDS_NATURAL_ID = "resident-cards-natural-id";
+
+    private static final String[] REGIONS = { USERS, USERS_NATURAL_ID, RESOURCES, KEYS, KEYS_NATURAL_ID,
+            RESIDENT_CARDS, RESIDENT_CARDS_NATURAL_ID };
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateJCacheManager(HibernateCacheProperties properties) {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(provider.getDefaultURI(), getClass().getClassLoader());
+
+        for (String region : REGIONS) {
+            if (cacheManager.getCache(region) == null) {
+                cacheManager.createCache(region, regionConfiguration(properties.regionSettings(region)));
+            }
+        }
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateJCacheManager) {
+        return hibernateProperties -> {
+            hibernateProperties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            hibernateProperties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            hibernateProperties.put(ConfigSettings.CACHE_MANAGER, hibernateJCacheManager);
+        };
+    }
+
+    @Bean
+    public MeterBinder secondLevelCacheMetrics(CacheManager hibernateJCacheManager) {
+        return registry -> {
+            for (String region : REGIONS) {
+                JCacheMetrics.monitor(registry, hibernateJCacheManager.getCache(region));
+            }
+        };
+    }
+
+    private static CaffeineConfiguration<Object, Object> regionConfiguration(Region settings) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(settings.getMaxSize()));
+        configuration.setExpireAfterWrite(OptionalLong.of(settings.getExpireAfterWrite().toNanos()));
+        configuration.setStatisticsEnabled(true);
+        return configuration;
+    }
+
+    @Data
+    @ConfigurationProperties(prefix = "app.cache.hibernate")
+    public static class HibernateCacheProperties {
+
+        /** Used for every region not listed in regions */
+        private Region defaults = new Region();
+
+        private Map<String, Region> regions = new LinkedHashMap<>();
+
+        Region regionSettings(String name) {
+            Region region = regions.get(name);
+            return region != null ? region : defaults;
+        }
+    }
+
+    @Data
+    public static class Region {
+        private long maxSize = 10_000;
+        private Duration expireAfterWrite = Duration.ofMinutes(30);
+    }
+}
@@ -0,0 +1,262 @@
+package com.dorm.manag.config;
+
+import com.dorm.manag.entity.IdempotencyRecord;
+import com.dorm.manag.exception.ServiceOverloadedException;
+import com.dorm.manag.service.IdempotencyService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.lang.NonNull;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Honours the Idempotency-Key header on the routes in app.idempotency.routes.
+ * The first request with a key runs normally and its response is stored when
+ * it is final (2xx, 409, 422); retries with the same key and body get that
+ * response back without running again. Runs after JwtAuthenticationFilter -
+ * keys are scoped to the authenticated user.
+ */
+@Component
+@RequiredArgsConstructor
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Idempotency-Key";
+    static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyProperties properties;
+    private final IdempotencyService idempotencyService;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !properties.isEnabled() || request.getHeader(HEADER) == null || !matchesRoute(request);
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+
+        String key = request.getHeader(HEADER).trim();
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            writeError(response, HttpServletResponse.SC_BAD_REQUEST, "Invalid Idempotency-Key",
+                    "Idempotency-Key must be 1-" + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            // Bez użytkownika nie ma zakresu klucza - i tak odrzuci to Spring Security
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String scope = authentication.getName();
+        byte[] body = StreamUtils.copyToByteArray(request.getInputStream());
+        String requestHash = hash(request, body);
+
+        Lock lock;
+        try {
+            lock = idempotencyService.lock(scope, key);
+        } catch (ServiceOverloadedException e) {
+            writeInProgress(response);
+            return;
+        }
+
+        try {
+            Optional<IdempotencyRecord> existing = idempotencyService.findLive(scope, key);
+            if (existing.isPresent()) {
+                respondFromRecord(existing.get(), requestHash, response);
+                return;
+            }
+
+            Optional<IdempotencyRecord> claimed = idempotencyService.begin(scope, key, requestHash);
+            if (claimed.isEmpty()) {
+                // Ten sam klucz właśnie obsługuje inny węzeł
+                writeInProgress(response);
+                return;
+            }
+
+            execute(claimed.get().getId(), new CachedBodyRequest(request, body), response, filterChain);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void execute(Long recordId, HttpServletRequest request, HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException {
+        ContentCachingResponseWrapper cachedResponse = new ContentCachingResponseWrapper(response);
+        boolean stored = false;
+        try {
+            filterChain.doFilter(request, cachedResponse);
+
+            // Kontrolery zwracają 400 także przy błędach przejściowych - zapamiętujemy tylko wyniki ostateczne
+            if (isFinal(cachedResponse.getStatus())) {
+                idempotencyService.complete(recordId, cachedResponse.getStatus(), cachedResponse.getContentType(),
+                        new String(cachedResponse.getContentAsByteArray(), StandardCharsets.UTF_8));
+                stored = true;
+            }
+        } finally {
+            if (!stored) {
+                idempotencyService.release(recordId);
+            }
+            cachedResponse.copyBodyToResponse();
+        }
+    }
+
+    private static boolean isFinal(int status) {
+        return (status >= 200 && status < 300)
+                || status == HttpServletResponse.SC_CONFLICT
+                || status == 422;
+    }
+
+    private void respondFromRecord(IdempotencyRecord record, String requestHash, HttpServletResponse response)
+            throws IOException {
+        if (!record.getRequestHash().equals(requestHash)) {
+            writeError(response, 422, "Idempotency-Key reused",
+                    "Idempotency-Key was already used for a different request");
+            return;
+        }
+        if (!record.isCompleted()) {
+            writeInProgress(response);
+            return;
+        }
+
+        response.setStatus(record.getResponseStatus());
+        if (record.getResponseContentType() != null) {
+            response.setContentType(record.getResponseContentType());
+        }
+        response.setHeader(REPLAYED_HEADER, "true");
+        if (record.getResponseBody() != null) {
+            byte[] bytes = record.getResponseBody().getBytes(StandardCharsets.UTF_8);
+            response.setContentLength(bytes.length);
+            response.getOutputStream().write(bytes);
+        }
+    }
+
+    private boolean matchesRoute(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        for (IdempotencyProperties.Route route : properties.getRoutes()) {
+            if ((route.getMethod() == null || route.getMethod().equalsIgnoreCase(request.getMethod()))
+                    && pathMatcher.match(route.getPattern(), path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String hash(HttpServletRequest request, byte[] body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((request.getMethod() + ' ' + request.getRequestURI() + '\n').getBytes(StandardCharsets.UTF_8));
+            digest.update(body);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private void writeInProgress(HttpServletResponse response) throws IOException {
+        response.setHeader("Retry-After", "1");
+        writeError(response, HttpServletResponse.SC_CONFLICT, "Conflict",
+                "A request with this Idempotency-Key is still being processed");
+    }
+
+    private void writeError(HttpServletResponse response, int status, String error, String message)
+            throws IOException {
+        response.setContentType("application/json;charset=UTF-8");
+        response.setStatus(status);
+        response.getWriter().write(
+                "{\n" +
+                        "  \"error\": \"" + error + "\",\n" +
+                        "  \"message\": \"" + message + "\",\n" +
+                        "  \"status\": " + status + ",\n" +
+                        "  \"timestamp\": \"" + java.time.Instant.now() + "\"\n" +
+                        "}");
+    }
+
+    /**
+     * Request whose body was already read for hashing
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    if (readListener == null) {
+                        throw new NullPointerException("readListener");
+                    }
+                    // Całe body jest już w pamięci - od razu dostępne i przeczytane do końca
+                    try {
+                        readListener.onDataAvailable();
+                        readListener.onAllDataRead();
+                    } catch (IOException e) {
+                        readListener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return input.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding() != null ? getCharacterEncoding() : "UTF-8";
+            return new BufferedReader(new InputStreamReader(getInputStream(), Charset.forName(encoding)));
+        }
+    }
+}
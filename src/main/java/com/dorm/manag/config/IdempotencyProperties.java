@@ -0,0 +1,35 @@
+package com.dorm.manag.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Idempotency-Key support (app.idempotency.*). Only the listed routes honour
+ * the header; a stored response is replayed for {@code ttl}.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.idempotency")
+public class IdempotencyProperties {
+
+    private boolean enabled = true;
+
+    private Duration ttl = Duration.ofHours(24);
+
+    /** How long a duplicate waits for the first request before getting 409 */
+    private Duration lockWaitTimeout = Duration.ofSeconds(10);
+
+    private List<Route> routes = new ArrayList<>();
+
+    @Data
+    public static class Route {
+        private String pattern;
+        /** HTTP method, null matches any */
+        private String method;
+    }
+}
@@ -1,45 +1,114 @@
 package com.dorm.manag.config;
 
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.context.MessageSource;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.support.ReloadableResourceBundleMessageSource;
+import org.springframework.lang.NonNull;
+import org.springframework.util.StringUtils;
 import org.springframework.web.servlet.LocaleResolver;
-import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
-import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
-import org.springframework.web.servlet.i18n.LocaleChangeInterceptor;
-import org.springframework.web.servlet.i18n.SessionLocaleResolver;
+import org.springframework.web.servlet.i18n.AcceptHeaderLocaleResolver;
 
+import java.text.MessageFormat;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Configuration
-public class InternationalizationConfig implements WebMvcConfigurer {
+public class InternationalizationConfig {
 
-    @Bean
-    public LocaleResolver localeResolver() {
-        SessionLocaleResolver slr = new SessionLocaleResolver();
-        slr.setDefaultLocale(new Locale("pl")); // Polish as default
-        return slr;
-    }
+    private static final Locale POLISH = new Locale("pl");
 
+    /**
+     * Locale z parametru ?lang=en / ?lang=pl albo z nagłówka Accept-Language.
+     * Nic nie jest zapisywane w sesji - API jest STATELESS.
+     */
     @Bean
-    public LocaleChangeInterceptor localeChangeInterceptor() {
-        LocaleChangeInterceptor lci = new LocaleChangeInterceptor();
-        lci.setParamName("lang"); // ?lang=en or ?lang=pl
-        return lci;
-    }
-
-    @Override
-    public void addInterceptors(InterceptorRegistry registry) {
-        registry.addInterceptor(localeChangeInterceptor());
+    public LocaleResolver localeResolver() {
+        AcceptHeaderLocaleResolver resolver = new AcceptHeaderLocaleResolver() {
+            @Override
+            @NonNull
+            public Locale resolveLocale(@NonNull HttpServletRequest request) {
+                String lang = request.getParameter("lang");
+                if (StringUtils.hasText(lang)) {
+                    Locale requested = StringUtils.parseLocale(lang);
+                    if (requested != null && getSupportedLocales().contains(requested)) {
+                        return requested;
+                    }
+                }
+                return super.resolveLocale(request);
+            }
+        };
+        resolver.setSupportedLocales(List.of(POLISH, Locale.ENGLISH));
+        resolver.setDefaultLocale(POLISH); // Polish as default
+        return resolver;
     }
 
     @Bean
     public MessageSource messageSource() {
-        ReloadableResourceBundleMessageSource messageSource = new ReloadableResourceBundleMessageSource();
+        ReloadableResourceBundleMessageSource messageSource = new PrecomputedMessageSource();
         messageSource.setBasename("classpath:messages/messages");
         messageSource.setDefaultEncoding("UTF-8");
         messageSource.setCacheSeconds(300); // 5 minutes cache
         return messageSource;
     }
-}
\ No newline at end of file
+
+    /**
+     * Flattens the merged bundle of a locale into a plain map on first use and
+     * serves lookups from it, instead of walking the bundle file chain on every
+     * call. The snapshot is rebuilt after the cacheSeconds window, so reloading
+     * still works.
+     */
+    static class PrecomputedMessageSource extends ReloadableResourceBundleMessageSource {
+
+        private final Map<Locale, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+        @Override
+        protected String resolveCodeWithoutArguments(@NonNull String code, @NonNull Locale locale) {
+            return snapshot(locale).messages.getProperty(code);
+        }
+
+        @Override
+        protected MessageFormat resolveCode(@NonNull String code, @NonNull Locale locale) {
+            Snapshot snapshot = snapshot(locale);
+            String message = snapshot.messages.getProperty(code);
+            if (message == null) {
+                return null;
+            }
+            // MessageFormat nie jest thread-safe - MessageSourceSupport synchronizuje na nim przy format()
+            return snapshot.formats.computeIfAbsent(code, c -> createMessageFormat(message, locale));
+        }
+
+        @Override
+        public void clearCache() {
+            super.clearCache();
+            snapshots.clear();
+        }
+
+        private Snapshot snapshot(Locale locale) {
+            Snapshot snapshot = snapshots.get(locale);
+            if (snapshot == null || snapshot.isStale(getCacheMillis())) {
+                snapshot = new Snapshot(getMergedProperties(locale).getProperties());
+                snapshots.put(locale, snapshot);
+            }
+            return snapshot;
+        }
+
+        private static final class Snapshot {
+            private final Properties messages;
+            private final Map<String, MessageFormat> formats = new ConcurrentHashMap<>();
+            private final long createdAt = System.currentTimeMillis();
+
+            private Snapshot(Properties messages) {
+                this.messages = messages != null ? messages : new Properties();
+            }
+
+            private boolean isStale(long cacheMillis) {
+                return cacheMillis >= 0 && System.currentTimeMillis() - createdAt > cacheMillis;
+            }
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.dorm.manag.config;
+
+import com.dorm.manag.repository.NaturalIdRepositoryImpl;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+@Configuration
+@EnableJpaRepositories(basePackages = "com.dorm.manag.repository", repositoryBaseClass = NaturalIdRepositoryImpl.class)
+public class JpaConfig {
+}
@@ -3,23 +3,25 @@ package com.dorm.manag.config;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.extern.slf4j.Slf4j;
+import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.web.AuthenticationEntryPoint;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
 
-@Slf4j
 @Component
+@RequiredArgsConstructor
 public class JwtAuthenticationEntryPoint implements AuthenticationEntryPoint {
 
+    private final SecurityEventMetrics securityEventMetrics;
+
     @Override
     public void commence(HttpServletRequest httpServletRequest,
             HttpServletResponse httpServletResponse,
             AuthenticationException e) throws IOException, ServletException {
 
-        log.error("Responding with unauthorized error. Message - {}", e.getMessage());
+        securityEventMetrics.unauthorized(httpServletRequest.getRequestURI(), e.getMessage());
 
         httpServletResponse.setContentType("application/json;charset=UTF-8");
         httpServletResponse.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
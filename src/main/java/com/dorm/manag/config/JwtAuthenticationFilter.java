@@ -1,6 +1,6 @@
 package com.dorm.manag.config;
 
-import com.dorm.manag.service.UserService;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -8,7 +8,9 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
@@ -16,6 +18,7 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
 
 import org.springframework.lang.NonNull;
 
@@ -25,7 +28,8 @@ import org.springframework.lang.NonNull;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenProvider jwtTokenProvider;
-    private final UserService userService;
+    private final ActiveTokenValidator activeTokenValidator;
+    private final SecurityEventMetrics securityEventMetrics;
 
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request,
@@ -45,10 +49,21 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             // Token z headera
             String jwt = getJwtFromRequest(request);
 
-            if (StringUtils.hasText(jwt) && jwtTokenProvider.validateToken(jwt)) {
-                String username = jwtTokenProvider.getUsernameFromToken(jwt);
+            Claims claims = null;
+            if (StringUtils.hasText(jwt)) {
+                claims = jwtTokenProvider.parseClaims(jwt);
+            } else {
+                securityEventMetrics.tokenRejected(SecurityEventMetrics.MISSING, path);
+            }
 
-                UserDetails userDetails = userService.loadUserByUsername(username);
+            if (claims != null && isActiveToken(claims)) {
+                String username = claims.getSubject();
+
+                // Principal budowany z claimów - bez zapytania do bazy
+                UserDetails userDetails = new User(
+                        username,
+                        "",
+                        List.of(new SimpleGrantedAuthority("ROLE_" + jwtTokenProvider.getRole(claims).name())));
 
                 UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
                         userDetails,
@@ -62,8 +77,6 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
                 log.debug("User '{}' authenticated successfully with authorities: {}",
                         username, userDetails.getAuthorities());
-            } else {
-                log.warn("JWT token not found or invalid in request");
             }
         } catch (Exception ex) {
             log.error("Could not set user authentication in security context", ex);
@@ -72,11 +85,22 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    private boolean isActiveToken(Claims claims) {
+        ActiveTokenValidator.Rejection rejection = activeTokenValidator.check(claims);
+        if (rejection != null) {
+            securityEventMetrics.tokenRejected(rejection.getMetricReason(),
+                    rejection.getDescription() + " of " + claims.getSubject());
+            return false;
+        }
+        return true;
+    }
+
     private boolean isPublicEndpoint(String path) {
         return path.equals("/api/auth/login") ||
                 path.equals("/api/auth/register") ||
                 path.equals("/api/auth/check") || //
                 path.startsWith("/api/cards/verify/") ||
+                path.equals("/.well-known/jwks.json") ||
                 path.startsWith("/actuator/") ||
                 path.startsWith("/swagger-ui/") ||
                 path.startsWith("/v3/api-docs/") ||
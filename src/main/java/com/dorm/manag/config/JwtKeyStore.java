@@ -0,0 +1,165 @@
+package com.dorm.manag.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.interfaces.RSAPrivateCrtKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.RSAPublicKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Holds the RSA key used to sign new tokens and all public keys accepted for
+ * verification, indexed by kid. Rotation: add the new key to every node,
+ * switch active-kid, drop the old key once its tokens have expired.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class JwtKeyStore {
+
+    private static final int MIN_RSA_BITS = 2048;
+
+    private final JwtProperties properties;
+    private final ResourceLoader resourceLoader;
+
+    private String activeKid;
+    private PrivateKey signingKey;
+    private Map<String, RSAPublicKey> verificationKeys;
+
+    @PostConstruct
+    void init() {
+        Map<String, RSAPublicKey> publicKeys = new LinkedHashMap<>();
+        Map<String, PrivateKey> privateKeys = new LinkedHashMap<>();
+
+        for (JwtProperties.Key key : properties.getKeys()) {
+            if (!StringUtils.hasText(key.getKid())) {
+                continue;
+            }
+
+            PrivateKey privateKey = StringUtils.hasText(key.getPrivateKey())
+                    ? parsePrivateKey(read(key.getPrivateKey()))
+                    : null;
+            RSAPublicKey publicKey = StringUtils.hasText(key.getPublicKey())
+                    ? parsePublicKey(read(key.getPublicKey()))
+                    : derivePublicKey(privateKey, key.getKid());
+
+            if (publicKey.getModulus().bitLength() < MIN_RSA_BITS) {
+                throw new IllegalStateException("JWT key '" + key.getKid() + "' is shorter than " + MIN_RSA_BITS + " bits");
+            }
+
+            publicKeys.put(key.getKid(), publicKey);
+            if (privateKey != null) {
+                privateKeys.put(key.getKid(), privateKey);
+            }
+        }
+
+        String kid = properties.getActiveKid();
+        if (StringUtils.hasText(kid) && privateKeys.containsKey(kid)) {
+            this.activeKid = kid;
+            this.signingKey = privateKeys.get(kid);
+        } else {
+            if (StringUtils.hasText(kid)) {
+                throw new IllegalStateException("No private key configured for active JWT kid '" + kid + "'");
+            }
+            // Brak konfiguracji - klucz tylko na czas życia procesu, nie do użycia przy wielu węzłach
+            KeyPair keyPair = generateKeyPair();
+            this.activeKid = "ephemeral-" + UUID.randomUUID();
+            this.signingKey = keyPair.getPrivate();
+            publicKeys.put(activeKid, (RSAPublicKey) keyPair.getPublic());
+            log.warn("No JWT signing key configured (app.jwt.keys). Generated ephemeral key '{}'; "
+                    + "tokens will not survive a restart and will not verify on other nodes.", activeKid);
+        }
+
+        this.verificationKeys = Collections.unmodifiableMap(publicKeys);
+        log.info("JWT signing with kid '{}', {} verification key(s) loaded", activeKid, verificationKeys.size());
+    }
+
+    public String getActiveKid() {
+        return activeKid;
+    }
+
+    public PrivateKey getSigningKey() {
+        return signingKey;
+    }
+
+    public RSAPublicKey getVerificationKey(String kid) {
+        return kid == null ? null : verificationKeys.get(kid);
+    }
+
+    public Map<String, RSAPublicKey> getVerificationKeys() {
+        return verificationKeys;
+    }
+
+    private String read(String value) {
+        if (value.startsWith("classpath:") || value.startsWith("file:")) {
+            try (InputStream in = resourceLoader.getResource(value).getInputStream()) {
+                return new String(in.readAllBytes(), StandardCharsets.US_ASCII);
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot read JWT key from " + value, e);
+            }
+        }
+        return value;
+    }
+
+    private static byte[] decodePem(String pem) {
+        String base64 = pem.replaceAll("-----(BEGIN|END) [A-Z ]+-----", "").replaceAll("\\s", "");
+        return Base64.getDecoder().decode(base64);
+    }
+
+    private static PrivateKey parsePrivateKey(String pem) {
+        try {
+            return KeyFactory.getInstance("RSA").generatePrivate(new PKCS8EncodedKeySpec(decodePem(pem)));
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new IllegalStateException("Invalid RSA private key (expected PKCS#8 PEM)", e);
+        }
+    }
+
+    private static RSAPublicKey parsePublicKey(String pem) {
+        try {
+            return (RSAPublicKey) KeyFactory.getInstance("RSA").generatePublic(new X509EncodedKeySpec(decodePem(pem)));
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new IllegalStateException("Invalid RSA public key (expected X.509 PEM)", e);
+        }
+    }
+
+    private static RSAPublicKey derivePublicKey(PrivateKey privateKey, String kid) {
+        if (!(privateKey instanceof RSAPrivateCrtKey crtKey)) {
+            throw new IllegalStateException("JWT key '" + kid + "' needs a public-key");
+        }
+        try {
+            return (RSAPublicKey) KeyFactory.getInstance("RSA")
+                    .generatePublic(new RSAPublicKeySpec(crtKey.getModulus(), crtKey.getPublicExponent()));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot derive public key for JWT key '" + kid + "'", e);
+        }
+    }
+
+    private static KeyPair generateKeyPair() {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(MIN_RSA_BITS);
+            return generator.generateKeyPair();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("RSA not available", e);
+        }
+    }
+}
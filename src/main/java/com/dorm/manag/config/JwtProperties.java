@@ -0,0 +1,32 @@
+package com.dorm.manag.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * RS256 signing keys (app.jwt.*). Tokens are signed with the key named by
+ * activeKid; every listed key is accepted for verification and published
+ * in /.well-known/jwks.json.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.jwt")
+public class JwtProperties {
+
+    private String activeKid;
+
+    private List<Key> keys = new ArrayList<>();
+
+    @Data
+    public static class Key {
+        private String kid;
+        /** PKCS#8 PEM, inline or as a classpath:/file: location. Optional for verify-only keys */
+        private String privateKey;
+        /** X.509 PEM, inline or as a location. Derived from the private key when omitted */
+        private String publicKey;
+    }
+}
@@ -1,100 +1,104 @@
 package com.dorm.manag.config;
 
+import com.dorm.manag.entity.Role;
+import com.dorm.manag.entity.User;
 import io.jsonwebtoken.*;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
-import javax.crypto.SecretKey;
+import java.security.Key;
 import java.util.Date;
+import java.util.UUID;
 
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class JwtTokenProvider {
 
-    @Value("${app.jwtSecret:mySecretKeyForJWTTokenGenerationAndValidation1234567890abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ1234567890}")
-    private String jwtSecret;
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLE = "role";
+    public static final String CLAIM_ENABLED = "enabled";
+    public static final String CLAIM_TOKEN_VERSION = "tv";
+
+    private final JwtKeyStore jwtKeyStore;
+    private final SecurityEventMetrics securityEventMetrics;
 
     @Value("${app.jwtExpirationInMs:86400000}")
     private int jwtExpirationInMs;
 
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = jwtSecret.getBytes();
-
-        // Jeśli klucz jest za krótki to użyje Keys.secretKeyFor
-        if (keyBytes.length < 64) {
-            log.warn("JWT Secret is too short ({} bytes). Using secure key generation for HS512.", keyBytes.length);
-            return Keys.secretKeyFor(SignatureAlgorithm.HS512);
-        }
-
-        return Keys.hmacShaKeyFor(keyBytes);
+    // Parser budowany raz przy starcie - jest thread-safe
+    private JwtParser jwtParser;
+
+    @PostConstruct
+    void init() {
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        Key key = jwtKeyStore.getVerificationKey(header.getKeyId());
+                        if (key == null) {
+                            throw new SignatureException("Unknown JWT key id: " + header.getKeyId());
+                        }
+                        return key;
+                    }
+                })
+                .build();
     }
 
-    public String generateToken(Authentication authentication) {
-        UserDetails userPrincipal = (UserDetails) authentication.getPrincipal();
-
-        String role = userPrincipal.getAuthorities().stream()
-                .findFirst()
-                .map(auth -> auth.getAuthority().replace("ROLE_", ""))
-                .orElse("STUDENT");
-
+    public String generateToken(User user) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtExpirationInMs);
 
         return Jwts.builder()
-                .setSubject(userPrincipal.getUsername())
-                .claim("role", role)
+                .setHeaderParam(JwsHeader.KEY_ID, jwtKeyStore.getActiveKid())
+                .setId(UUID.randomUUID().toString())
+                .setSubject(user.getUsername())
+                .claim(CLAIM_USER_ID, user.getId())
+                .claim(CLAIM_ROLE, user.getRole().name())
+                .claim(CLAIM_ENABLED, user.isEnabled())
+                .claim(CLAIM_TOKEN_VERSION, user.getCurrentTokenVersion())
                 .setIssuedAt(now)
                 .setExpiration(expiryDate)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS512)
+                .signWith(jwtKeyStore.getSigningKey(), SignatureAlgorithm.RS256)
                 .compact();
     }
 
-    public String getUsernameFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    /**
+     * Verify signature and expiry in a single pass and return the token claims,
+     * or null when the token is not valid
+     */
+    public Claims parseClaims(String token) {
+        try {
+            return jwtParser.parseClaimsJws(token).getBody();
+        } catch (ExpiredJwtException ex) {
+            securityEventMetrics.tokenRejected(SecurityEventMetrics.EXPIRED, ex.getMessage());
+        } catch (SignatureException ex) {
+            securityEventMetrics.tokenRejected(SecurityEventMetrics.BAD_SIGNATURE, ex.getMessage());
+        } catch (MalformedJwtException | UnsupportedJwtException | IllegalArgumentException ex) {
+            securityEventMetrics.tokenRejected(SecurityEventMetrics.MALFORMED, ex.getMessage());
+        } catch (Exception ex) {
+            securityEventMetrics.tokenRejected(SecurityEventMetrics.MALFORMED, ex.getMessage());
+        }
+        return null;
+    }
 
-        return claims.getSubject();
+    public Long getUserId(Claims claims) {
+        return claims.get(CLAIM_USER_ID, Long.class);
     }
 
-    public String getRoleFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    public Integer getTokenVersion(Claims claims) {
+        return claims.get(CLAIM_TOKEN_VERSION, Integer.class);
+    }
 
-        return (String) claims.get("role");
+    public boolean isEnabled(Claims claims) {
+        return Boolean.TRUE.equals(claims.get(CLAIM_ENABLED, Boolean.class));
     }
 
-    public boolean validateToken(String token) {
-        try {
-            Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token);
-            return true;
-        } catch (MalformedJwtException ex) {
-            log.error("Invalid JWT token: {}", ex.getMessage());
-        } catch (ExpiredJwtException ex) {
-            log.error("Expired JWT token: {}", ex.getMessage());
-        } catch (UnsupportedJwtException ex) {
-            log.error("Unsupported JWT token: {}", ex.getMessage());
-        } catch (IllegalArgumentException ex) {
-            log.error("JWT claims string is empty: {}", ex.getMessage());
-        } catch (SignatureException ex) {
-            log.error("JWT signature validation failed: {}", ex.getMessage());
-        } catch (Exception ex) {
-            log.error("JWT validation error: {}", ex.getMessage());
-        }
-        return false;
+    public Role getRole(Claims claims) {
+        return Role.fromString(claims.get(CLAIM_ROLE, String.class));
     }
-}
\ No newline at end of file
+}
@@ -1,5 +1,7 @@
 package com.dorm.manag.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -8,8 +10,32 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 @Configuration
 public class PasswordEncoderConfig {
 
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    // Podniesienie kosztu powoduje rehash przy następnym logowaniu (upgradeEncoding)
+    @Value("${app.security.bcrypt.strength:10}")
+    private int bcryptStrength;
+
+    @Value("${app.security.bcrypt.threads:0}")
+    private int hashingThreads;
+
+    @Value("${app.security.bcrypt.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${app.security.bcrypt.wait-timeout-ms:5000}")
+    private long waitTimeoutMs;
+
+    @Value("${app.security.bcrypt.retry-after-seconds:2}")
+    private long retryAfterSeconds;
+
+    @Bean(destroyMethod = "shutdown")
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry) {
+        int threads = hashingThreads > 0 ? hashingThreads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+        return new BoundedPasswordEncoder(
+                new BCryptPasswordEncoder(bcryptStrength),
+                threads,
+                queueCapacity,
+                waitTimeoutMs,
+                retryAfterSeconds,
+                meterRegistry);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,76 @@
+package com.dorm.manag.config;
+
+import com.dorm.manag.exception.RateLimitExceededException;
+import com.dorm.manag.service.RateLimiterService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Per-IP throttling of the routes listed in app.rate-limit.routes.
+ * Runs ahead of JwtAuthenticationFilter so rejected requests never reach
+ * token parsing, the database or the password encoder.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimitProperties properties;
+    private final RateLimiterService rateLimiterService;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+
+        RateLimitProperties.Route rule = properties.isEnabled() ? findRule(request) : null;
+
+        if (rule != null) {
+            try {
+                // Za proxy ustaw server.forward-headers-strategy, wtedy getRemoteAddr() zwraca IP klienta
+                long remaining = rateLimiterService.consume(rule, request.getRemoteAddr());
+                response.setHeader("X-RateLimit-Remaining", String.valueOf(remaining));
+            } catch (RateLimitExceededException e) {
+                writeTooManyRequests(response, e);
+                return;
+            }
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private RateLimitProperties.Route findRule(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        for (RateLimitProperties.Route route : properties.getRoutes()) {
+            if ((route.getMethod() == null || route.getMethod().equalsIgnoreCase(request.getMethod()))
+                    && pathMatcher.match(route.getPattern(), path)) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    private void writeTooManyRequests(HttpServletResponse response, RateLimitExceededException e) throws IOException {
+        response.setContentType("application/json;charset=UTF-8");
+        response.setStatus(429);
+        response.setHeader("Retry-After", String.valueOf(e.getRetryAfterSeconds()));
+        response.getWriter().write(
+                "{\n" +
+                        "  \"error\": \"Too Many Requests\",\n" +
+                        "  \"message\": \"" + e.getMessage() + "\",\n" +
+                        "  \"status\": 429,\n" +
+                        "  \"timestamp\": \"" + java.time.Instant.now() + "\"\n" +
+                        "}");
+    }
+}
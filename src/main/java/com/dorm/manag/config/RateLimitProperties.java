@@ -0,0 +1,43 @@
+package com.dorm.manag.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Per-route request limits for the public endpoints (app.rate-limit.*).
+ * Each route gets a token bucket of {@code capacity} tokens refilled every
+ * {@code period}, kept separately for every client IP.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    /** Buckets untouched for this long are dropped */
+    private Duration idleTimeout = Duration.ofMinutes(15);
+
+    /** Upper bound on live buckets, protects memory against IP spraying */
+    private long maxBuckets = 100_000;
+
+    private List<Route> routes = new ArrayList<>();
+
+    /** Login attempts per username, independent of the client IP */
+    private Route username = new Route();
+
+    @Data
+    public static class Route {
+        private String name;
+        private String pattern;
+        /** HTTP method, null matches any */
+        private String method;
+        private long capacity = 10;
+        private Duration period = Duration.ofMinutes(1);
+    }
+}
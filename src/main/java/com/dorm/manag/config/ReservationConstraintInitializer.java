@@ -0,0 +1,99 @@
+package com.dorm.manag.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Adds the Postgres exclusion constraint that makes overlapping active
+ * reservations of one resource impossible across all nodes. Hibernate's
+ * ddl-auto cannot express it. Runs after the schema is in place and before
+ * the web server accepts requests; skipped on other databases (H2 in tests).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReservationConstraintInitializer implements SmartInitializingSingleton {
+
+    public static final String CONSTRAINT_NAME = "reservations_no_overlap";
+
+    private final DataSource dataSource;
+    private final TransactionTemplate transactionTemplate;
+
+    private volatile boolean installed;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!isPostgres()) {
+            log.info("Skipping {} constraint: database is not PostgreSQL", CONSTRAINT_NAME);
+            return;
+        }
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        try {
+            // Hikari ma auto-commit: false - DDL musi iść w transakcji
+            transactionTemplate.executeWithoutResult(status -> {
+                // btree_gist - potrzebne dla "resource_id WITH =" w indeksie GiST
+                jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS btree_gist");
+                jdbcTemplate.execute("""
+                        DO $$
+                        BEGIN
+                            IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = '%s') THEN
+                                ALTER TABLE reservations ADD CONSTRAINT %s
+                                    EXCLUDE USING gist (resource_id WITH =, tsrange(start_time, end_time) WITH &&)
+                                    WHERE (status IN ('CONFIRMED', 'CHECKED_IN'));
+                            END IF;
+                        END $$
+                        """.formatted(CONSTRAINT_NAME, CONSTRAINT_NAME));
+            });
+            installed = true;
+        } catch (Exception e) {
+            // Np. brak uprawnień do CREATE EXTENSION albo istniejące nakładające się rezerwacje
+            log.error("Could not create {} constraint, double bookings across nodes are not prevented: {}",
+                    CONSTRAINT_NAME, e.getMessage());
+        }
+    }
+
+    /**
+     * Whether the database itself rejects overlapping reservations
+     */
+    public boolean isInstalled() {
+        return installed;
+    }
+
+    /**
+     * Whether the exception was raised by the reservations_no_overlap
+     * constraint, as opposed to any other integrity violation
+     */
+    public static boolean isOverlapViolation(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation
+                    && CONSTRAINT_NAME.equalsIgnoreCase(violation.getConstraintName())) {
+                return true;
+            }
+            // Nie każdy dialekt wyciąga nazwę ograniczenia - Postgres podaje ją w komunikacie
+            if (cause.getMessage() != null && cause.getMessage().contains(CONSTRAINT_NAME)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isPostgres() {
+        try (Connection connection = dataSource.getConnection()) {
+            return "PostgreSQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName());
+        } catch (SQLException e) {
+            log.warn("Could not determine database type: {}", e.getMessage());
+            return false;
+        }
+    }
+}
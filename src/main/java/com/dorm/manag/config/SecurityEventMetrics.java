@@ -0,0 +1,87 @@
+package com.dorm.manag.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters for rejected tokens and 401 responses, tagged by reason. Log lines
+ * for these events are rate limited to one per reason per interval (with a
+ * count of the suppressed ones), so anonymous traffic does not turn into
+ * synchronous log I/O on every request.
+ */
+@Slf4j
+@Component
+public class SecurityEventMetrics {
+
+    public static final String MISSING = "missing";
+    public static final String EXPIRED = "expired";
+    public static final String BAD_SIGNATURE = "bad_signature";
+    public static final String MALFORMED = "malformed";
+    public static final String DISABLED = "disabled";
+    public static final String REVOKED = "revoked";
+
+    private final MeterRegistry meterRegistry;
+    private final long logIntervalNanos;
+
+    private final Map<String, Counter> rejectedCounters = new ConcurrentHashMap<>();
+    private final Map<String, SampledLog> sampledLogs = new ConcurrentHashMap<>();
+    private final Counter unauthorizedCounter;
+
+    public SecurityEventMetrics(MeterRegistry meterRegistry,
+            @Value("${app.security.event-log-interval-ms:60000}") long logIntervalMs) {
+        this.meterRegistry = meterRegistry;
+        this.logIntervalNanos = TimeUnit.MILLISECONDS.toNanos(logIntervalMs);
+        this.unauthorizedCounter = Counter.builder("security.http.unauthorized")
+                .description("Requests answered with 401 by the authentication entry point")
+                .register(meterRegistry);
+    }
+
+    public void tokenRejected(String reason, String detail) {
+        rejectedCounters.computeIfAbsent(reason, r -> Counter.builder("security.jwt.rejected")
+                .description("JWT tokens rejected by the authentication filter")
+                .tag("reason", r)
+                .register(meterRegistry))
+                .increment();
+
+        long suppressed = sampledLogs.computeIfAbsent(reason, r -> new SampledLog()).tryAcquire(logIntervalNanos);
+        if (suppressed >= 0) {
+            log.warn("JWT rejected ({}): {} [{} similar suppressed]", reason, detail, suppressed);
+        }
+    }
+
+    public void unauthorized(String path, String detail) {
+        unauthorizedCounter.increment();
+
+        long suppressed = sampledLogs.computeIfAbsent("unauthorized", r -> new SampledLog()).tryAcquire(logIntervalNanos);
+        if (suppressed >= 0) {
+            log.warn("Responding with 401 for {}: {} [{} similar suppressed]", path, detail, suppressed);
+        }
+    }
+
+    private static final class SampledLog {
+        private final AtomicLong nextAllowedAt = new AtomicLong(System.nanoTime());
+        private final AtomicLong suppressed = new AtomicLong();
+
+        /**
+         * @return number of events suppressed since the last logged one, or -1
+         *         when this event should not be logged
+         */
+        long tryAcquire(long intervalNanos) {
+            long now = System.nanoTime();
+            long next = nextAllowedAt.get();
+            if (now - next >= 0 && nextAllowedAt.compareAndSet(next, now + intervalNanos)) {
+                return suppressed.getAndSet(0);
+            }
+            suppressed.incrementAndGet();
+            return -1;
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.dorm.manag.dto.ApplicationDto;
 import com.dorm.manag.dto.CreateApplicationRequest;
 import com.dorm.manag.entity.ApplicationStatus;
 import com.dorm.manag.entity.User;
+import com.dorm.manag.exception.ServiceOverloadedException;
 import com.dorm.manag.service.ApplicationService;
 import com.dorm.manag.service.UserService;
 import jakarta.validation.Valid;
@@ -280,6 +281,9 @@ public class ApplicationController {
             response.put("application", application);
 
             return ResponseEntity.ok(response);
+        } catch (ServiceOverloadedException e) {
+            // 503 + Retry-After z GlobalExceptionHandler
+            throw e;
         } catch (Exception e) {
             log.error("Error assigning room to application {}: {}", id, e.getMessage());
             Map<String, String> errorResponse = new HashMap<>();
@@ -1,12 +1,17 @@
 package com.dorm.manag.controller;
 
+import com.dorm.manag.config.ActiveTokenValidator;
 import com.dorm.manag.config.JwtTokenProvider;
 import com.dorm.manag.dto.LoginRequest;
 import com.dorm.manag.dto.RegisterRequest;
+import com.dorm.manag.exception.RateLimitExceededException;
+import com.dorm.manag.exception.ServiceOverloadedException;
 import com.dorm.manag.service.AuthService;
+import io.jsonwebtoken.Claims;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -23,12 +28,22 @@ public class AuthController {
 
     private final AuthService authService;
     private final JwtTokenProvider jwtTokenProvider;
+    private final ActiveTokenValidator activeTokenValidator;
 
     @PostMapping("/login")
     public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
         try {
             Map<String, Object> response = authService.authenticateUser(loginRequest);
             return ResponseEntity.ok(response);
+        } catch (RateLimitExceededException e) {
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Too many login attempts");
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .body(errorResponse);
+        } catch (ServiceOverloadedException e) {
+            return serviceBusy(e);
         } catch (Exception e) {
             log.error("Authentication error: {}", e.getMessage());
             Map<String, String> errorResponse = new HashMap<>();
@@ -43,6 +58,8 @@ public class AuthController {
         try {
             Map<String, Object> response = authService.registerUser(registerRequest);
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (ServiceOverloadedException e) {
+            return serviceBusy(e);
         } catch (Exception e) {
             log.error("Registration error: {}", e.getMessage());
             Map<String, String> errorResponse = new HashMap<>();
@@ -67,9 +84,13 @@ public class AuthController {
     }
 
     @PostMapping("/logout")
-    public ResponseEntity<?> logoutUser() {
-        // Since we're using JWT tokens, logout is handled on the client side
-        // by removing the token from storage
+    public ResponseEntity<?> logoutUser(
+            @RequestHeader(value = "Authorization", required = false) String authHeader) {
+        // Token trafia na listę odwołanych do czasu swojego wygaśnięcia
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            authService.logout(authHeader.substring(7));
+        }
+
         Map<String, String> response = new HashMap<>();
         response.put("message", "User logged out successfully");
         return ResponseEntity.ok(response);
@@ -84,10 +105,11 @@ public class AuthController {
             String token = authHeader.substring(7);
 
             try {
-                if (jwtTokenProvider.validateToken(token)) {
-                    String username = jwtTokenProvider.getUsernameFromToken(token);
+                Claims claims = jwtTokenProvider.parseClaims(token);
+                // Endpoint jest publiczny i filtr go pomija - te same reguły co w JwtAuthenticationFilter
+                if (claims != null && activeTokenValidator.check(claims) == null) {
                     response.put("authenticated", true);
-                    response.put("username", username);
+                    response.put("username", claims.getSubject());
                     return ResponseEntity.ok(response);
                 }
             } catch (Exception e) {
@@ -98,4 +120,13 @@ public class AuthController {
         response.put("authenticated", false);
         return ResponseEntity.ok(response);
     }
+
+    private ResponseEntity<?> serviceBusy(ServiceOverloadedException e) {
+        Map<String, String> errorResponse = new HashMap<>();
+        errorResponse.put("error", "Service busy");
+        errorResponse.put("message", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(errorResponse);
+    }
 }
\ No newline at end of file
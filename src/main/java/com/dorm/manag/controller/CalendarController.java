@@ -0,0 +1,137 @@
+package com.dorm.manag.controller;
+
+import com.dorm.manag.entity.ReservableResource;
+import com.dorm.manag.entity.User;
+import com.dorm.manag.service.CalendarFeedService;
+import com.dorm.manag.service.UserService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Subscribable .ics feeds. /feeds/** is public - the secret token in the path
+ * stands in for the login, calendar clients cannot send a JWT.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/calendar")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*", maxAge = 3600, exposedHeaders = { HttpHeaders.ETAG, HttpHeaders.LAST_MODIFIED })
+public class CalendarController {
+
+    private static final MediaType TEXT_CALENDAR = new MediaType("text", "calendar", StandardCharsets.UTF_8);
+
+    private final CalendarFeedService calendarFeedService;
+    private final UserService userService;
+
+    @GetMapping("/feed-token")
+    public ResponseEntity<?> getFeedToken(Authentication authentication) {
+        try {
+            User user = currentUser(authentication);
+            return ResponseEntity.ok(feedLinks(calendarFeedService.getOrCreateFeedToken(user)));
+        } catch (Exception e) {
+            log.error("Error retrieving calendar feed token: {}", e.getMessage());
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Failed to retrieve calendar feed token");
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+        }
+    }
+
+    @PostMapping("/feed-token/reset")
+    public ResponseEntity<?> resetFeedToken(Authentication authentication) {
+        try {
+            User user = currentUser(authentication);
+            Map<String, String> response = feedLinks(calendarFeedService.resetFeedToken(user));
+            response.put("message", "Calendar feed token reset, previous feed links no longer work");
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            log.error("Error resetting calendar feed token: {}", e.getMessage());
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Failed to reset calendar feed token");
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+        }
+    }
+
+    @GetMapping("/feeds/{token}/my.ics")
+    public ResponseEntity<StreamingResponseBody> getMyFeed(@PathVariable String token, WebRequest webRequest) {
+        try {
+            Optional<Long> userId = calendarFeedService.findUserIdByFeedToken(token);
+            if (userId.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+
+            CalendarFeedService.FeedVersion version = calendarFeedService.getUserFeedVersion(userId.get());
+            if (webRequest.checkNotModified(version.etag(), version.lastModified())) {
+                // 304 ustawione przez checkNotModified, zdarzenia w ogóle nie są czytane
+                return null;
+            }
+            return feedResponse("reservations.ics", out -> calendarFeedService.writeUserFeed(userId.get(), out));
+        } catch (Exception e) {
+            log.error("Error serving personal calendar feed: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @GetMapping("/feeds/{token}/resources/{resourceId}.ics")
+    public ResponseEntity<StreamingResponseBody> getResourceFeed(
+            @PathVariable String token,
+            @PathVariable Long resourceId,
+            WebRequest webRequest) {
+        try {
+            if (calendarFeedService.findUserIdByFeedToken(token).isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            Optional<ReservableResource> resource = calendarFeedService.findResource(resourceId);
+            if (resource.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+
+            CalendarFeedService.FeedVersion version = calendarFeedService.getResourceFeedVersion(resource.get());
+            if (webRequest.checkNotModified(version.etag(), version.lastModified())) {
+                return null;
+            }
+            return feedResponse("resource-" + resourceId + ".ics",
+                    out -> calendarFeedService.writeResourceFeed(resource.get(), out));
+        } catch (Exception e) {
+            log.error("Error serving calendar feed for resource {}: {}", resourceId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    // ETag i Last-Modified ustawia już checkNotModified - tu tylko typ i polityka cache
+    private ResponseEntity<StreamingResponseBody> feedResponse(String filename, StreamingResponseBody body) {
+        return ResponseEntity.ok()
+                .contentType(TEXT_CALENDAR)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + filename + "\"")
+                .body(body);
+    }
+
+    private Map<String, String> feedLinks(String token) {
+        Map<String, String> response = new HashMap<>();
+        response.put("token", token);
+        response.put("myFeed", "/api/calendar/feeds/" + token + "/my.ics");
+        response.put("resourceFeedTemplate", "/api/calendar/feeds/" + token + "/resources/{resourceId}.ics");
+        return response;
+    }
+
+    private User currentUser(Authentication authentication) {
+        return userService.findByUsername(authentication.getName())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+}
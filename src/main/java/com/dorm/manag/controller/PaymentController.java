@@ -1,14 +1,23 @@
 package com.dorm.manag.controller;
 
+import com.dorm.manag.dto.CreateInvoicingRunRequest;
 import com.dorm.manag.dto.CreatePaymentRequest;
+import com.dorm.manag.dto.InvoicingRunDto;
 import com.dorm.manag.dto.PaymentDto;
 import com.dorm.manag.entity.PaymentStatus;
 import com.dorm.manag.entity.User;
+import com.dorm.manag.service.PaymentProcessor;
 import com.dorm.manag.service.PaymentService;
+import com.dorm.manag.service.ReceiptService;
+import com.dorm.manag.service.RentInvoicingService;
 import com.dorm.manag.service.UserService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -16,7 +25,11 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -29,7 +42,18 @@ import java.util.Optional;
 @CrossOrigin(origins = "*", maxAge = 3600)
 public class PaymentController {
 
+    static final String WEBHOOK_SIGNATURE_HEADER = "X-Webhook-Signature";
+
+    // Atrybuty sendfile konektora NIO Tomcata (te same, których używa DefaultServlet)
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
     private final PaymentService paymentService;
+    private final PaymentProcessor paymentProcessor;
+    private final ReceiptService receiptService;
+    private final RentInvoicingService rentInvoicingService;
     private final UserService userService;
 
     @PostMapping("/create")
@@ -150,13 +174,15 @@ public class PaymentController {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
             }
 
-            PaymentDto processedPayment = paymentService.processPayment(id);
+            PaymentDto processingPayment = paymentService.processPayment(id);
 
+            // Wynik przychodzi asynchronicznie - klient odpytuje GET /api/payments/{id}
             Map<String, Object> response = new HashMap<>();
-            response.put("message", "Payment processed successfully");
-            response.put("payment", processedPayment);
+            response.put("message", "Payment submitted for processing");
+            response.put("payment", processingPayment);
+            response.put("statusUrl", "/api/payments/" + id);
 
-            return ResponseEntity.ok(response);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
         } catch (Exception e) {
             log.error("Error processing payment {}: {}", id, e.getMessage());
             Map<String, String> errorResponse = new HashMap<>();
@@ -166,6 +192,30 @@ public class PaymentController {
         }
     }
 
+    @PostMapping("/webhook")
+    public ResponseEntity<?> handleGatewayWebhook(@RequestBody String payload,
+            @RequestHeader(value = WEBHOOK_SIGNATURE_HEADER, required = false) String signature) {
+        try {
+            boolean known = paymentProcessor.handleWebhook(payload, signature);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("received", true);
+            response.put("known", known);
+            return ResponseEntity.ok(response);
+        } catch (SecurityException e) {
+            log.warn("Rejected payment webhook: {}", e.getMessage());
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Invalid signature");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(errorResponse);
+        } catch (Exception e) {
+            log.error("Error handling payment webhook: {}", e.getMessage());
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Failed to handle webhook");
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+        }
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<?> getPaymentById(@PathVariable Long id, Authentication authentication) {
         try {
@@ -196,7 +246,10 @@ public class PaymentController {
     }
 
     @GetMapping("/{id}/receipt")
-    public ResponseEntity<?> getPaymentReceipt(@PathVariable Long id, Authentication authentication) {
+    public ResponseEntity<?> getPaymentReceipt(@PathVariable Long id,
+            Authentication authentication,
+            WebRequest webRequest,
+            HttpServletRequest request) {
         try {
             Optional<PaymentDto> paymentOpt = paymentService.getPaymentById(id);
             if (paymentOpt.isEmpty()) {
@@ -212,19 +265,40 @@ public class PaymentController {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
             }
 
-            byte[] pdfBytes = paymentService.generatePaymentReceipt(id);
+            Optional<ReceiptService.StoredReceipt> receipt = receiptService.getReceipt(id);
+            if (receipt.isEmpty()) {
+                Map<String, String> errorResponse = new HashMap<>();
+                errorResponse.put("error", "Receipt not available");
+                errorResponse.put("message", "Receipts are issued for completed payments only");
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
+            }
 
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_PDF);
-            headers.setContentDispositionFormData("attachment", "payment-receipt-" + id + ".pdf");
+            // Treść pliku jest adresowana hashem - silny ETag i immutable
+            if (webRequest.checkNotModified("\"" + receipt.get().sha256() + "\"")) {
+                return null;
+            }
 
-            return ResponseEntity.ok()
-                    .headers(headers)
-                    .body(pdfBytes);
+            Path file = receipt.get().file();
+            long size = Files.size(file);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_PDF)
+                    .contentLength(size)
+                    .cacheControl(CacheControl.maxAge(Duration.ofDays(365)).cachePrivate().immutable())
+                    .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                            .filename("payment-receipt-" + id + ".pdf").build().toString());
+
+            if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+                // Tomcat wyśle plik przez sendfile po zakończeniu obsługi - bez kopiowania przez JVM
+                request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+                request.setAttribute(SENDFILE_START, 0L);
+                request.setAttribute(SENDFILE_END, size);
+                return response.build();
+            }
+            return response.body(new FileSystemResource(file));
         } catch (Exception e) {
-            log.error("Error generating receipt for payment {}: {}", id, e.getMessage());
+            log.error("Error serving receipt for payment {}: {}", id, e.getMessage());
             Map<String, String> errorResponse = new HashMap<>();
-            errorResponse.put("error", "Failed to generate receipt");
+            errorResponse.put("error", "Failed to retrieve receipt");
             errorResponse.put("message", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
         }
@@ -251,4 +325,54 @@ public class PaymentController {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
         }
     }
-}
\ No newline at end of file
+
+    // Bulk rent invoicing
+    @PostMapping("/invoicing-runs")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> startInvoicingRun(@Valid @RequestBody CreateInvoicingRunRequest request,
+            Authentication authentication) {
+        try {
+            InvoicingRunDto run = rentInvoicingService.startRun(request, authentication.getName());
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("message", run.getLastUserId() > 0 ? "Invoicing run resumed" : "Invoicing run started");
+            response.put("run", run);
+            response.put("statusUrl", "/api/payments/invoicing-runs/" + run.getBillingPeriod());
+
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+        } catch (IllegalStateException e) {
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Invoicing run not started");
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
+        } catch (Exception e) {
+            log.error("Error starting invoicing run for {}: {}", request.getBillingPeriod(), e.getMessage());
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Failed to start invoicing run");
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+        }
+    }
+
+    @GetMapping("/invoicing-runs")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getInvoicingRuns() {
+        try {
+            return ResponseEntity.ok(rentInvoicingService.getRuns());
+        } catch (Exception e) {
+            log.error("Error retrieving invoicing runs: {}", e.getMessage());
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Failed to retrieve invoicing runs");
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+        }
+    }
+
+    @GetMapping("/invoicing-runs/{billingPeriod}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getInvoicingRun(@PathVariable String billingPeriod) {
+        return rentInvoicingService.getRun(billingPeriod)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
@@ -4,9 +4,9 @@ import com.dorm.manag.dto.ChangePasswordRequest;
 import com.dorm.manag.dto.UpdateUserRequest;
 import com.dorm.manag.entity.ProfileImage;
 import com.dorm.manag.entity.User;
+import com.dorm.manag.exception.ServiceOverloadedException;
 import com.dorm.manag.service.ProfileImageService;
 import com.dorm.manag.service.UserService;
-import com.dorm.manag.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpHeaders;
@@ -30,7 +30,6 @@ import java.util.Optional;
 public class ProfileController {
 
     private final UserService userService;
-    private final UserRepository userRepository;
     private final ProfileImageService profileImageService;
     private final PasswordEncoder passwordEncoder;
 
@@ -167,10 +166,12 @@ public class ProfileController {
                         .body(Map.of("error", "Current password is incorrect"));
             }
 
-            user.setPassword(passwordEncoder.encode(request.getNewPassword()));
-            userRepository.save(user);
+            userService.changePassword(user, request.getNewPassword());
 
             return ResponseEntity.ok(Map.of("message", "Password changed successfully"));
+        } catch (ServiceOverloadedException e) {
+            // 503 + Retry-After z GlobalExceptionHandler
+            throw e;
         } catch (Exception e) {
             log.error("Error changing password: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
@@ -1,14 +1,20 @@
 package com.dorm.manag.controller;
 
 import com.dorm.manag.dto.CreateReservationRequest;
+import com.dorm.manag.dto.CreateReservationSeriesRequest;
+import com.dorm.manag.dto.CursorPage;
 import com.dorm.manag.dto.ReservationDto;
+import com.dorm.manag.dto.ReservationSeriesResultDto;
 import com.dorm.manag.entity.User;
+import com.dorm.manag.exception.ServiceOverloadedException;
+import com.dorm.manag.service.ReservationSeriesService;
 import com.dorm.manag.service.ReservationService;
 import com.dorm.manag.service.UserService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -24,10 +30,14 @@ import java.util.Map;
 @RestController
 @RequestMapping("/api/reservations")
 @RequiredArgsConstructor
-@CrossOrigin(origins = "*", maxAge = 3600)
+@CrossOrigin(origins = "*", maxAge = 3600, exposedHeaders = ReservationController.NEXT_CURSOR_HEADER)
 public class ReservationController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final int DEFAULT_PAGE_SIZE = 200;
+
     private final ReservationService reservationService;
+    private final ReservationSeriesService reservationSeriesService;
     private final UserService userService;
 
     @PostMapping
@@ -46,6 +56,8 @@ public class ReservationController {
             response.put("reservation", reservation);
 
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (ServiceOverloadedException e) {
+            return serviceBusy(e);
         } catch (Exception e) {
             log.error("Error creating reservation: {}", e.getMessage());
             Map<String, String> errorResponse = new HashMap<>();
@@ -55,6 +67,42 @@ public class ReservationController {
         }
     }
 
+    @PostMapping("/series")
+    public ResponseEntity<?> createReservationSeries(
+            @Valid @RequestBody CreateReservationSeriesRequest request,
+            Authentication authentication) {
+        try {
+            String username = authentication.getName();
+            User user = userService.findByUsername(username)
+                    .orElseThrow(() -> new RuntimeException("User not found"));
+
+            ReservationSeriesResultDto result = reservationSeriesService.createSeries(request, user);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("created", result.getCreated());
+            response.put("rejected", result.getRejected());
+
+            if (result.getCreated().isEmpty()) {
+                response.put("error", "Failed to create reservation series");
+                response.put("message", "No occurrence of the series could be reserved");
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+            }
+
+            response.put("message", result.getRejected().isEmpty()
+                    ? "Reservation series created successfully"
+                    : "Reservation series created, some occurrences were rejected");
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (ServiceOverloadedException e) {
+            return serviceBusy(e);
+        } catch (Exception e) {
+            log.error("Error creating reservation series: {}", e.getMessage());
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Failed to create reservation series");
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+        }
+    }
+
     @GetMapping("/my")
     public ResponseEntity<?> getMyReservations(Authentication authentication) {
         try {
@@ -142,10 +190,14 @@ public class ReservationController {
 
     @GetMapping
     @PreAuthorize("hasRole('ADMIN') or hasRole('RECEPTIONIST')")
-    public ResponseEntity<?> getAllReservations() {
+    public ResponseEntity<?> getAllReservations(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit) {
         try {
-            List<ReservationDto> reservations = reservationService.getAllReservations();
-            return ResponseEntity.ok(reservations);
+            CursorPage<ReservationDto> page = reservationService.getAllReservations(cursor, limit);
+            return pageResponse(page);
+        } catch (IllegalArgumentException e) {
+            return badPageRequest(e);
         } catch (Exception e) {
             log.error("Error retrieving all reservations: {}", e.getMessage());
             Map<String, String> errorResponse = new HashMap<>();
@@ -174,10 +226,15 @@ public class ReservationController {
     public ResponseEntity<?> getResourceReservations(
             @PathVariable Long resourceId,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit) {
         try {
-            List<ReservationDto> reservations = reservationService.getResourceReservations(resourceId, start, end);
-            return ResponseEntity.ok(reservations);
+            CursorPage<ReservationDto> page = reservationService.getResourceReservations(
+                    resourceId, start, end, cursor, limit);
+            return pageResponse(page);
+        } catch (IllegalArgumentException e) {
+            return badPageRequest(e);
         } catch (Exception e) {
             log.error("Error retrieving resource reservations: {}", e.getMessage());
             Map<String, String> errorResponse = new HashMap<>();
@@ -206,4 +263,29 @@ public class ReservationController {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
         }
     }
-}
\ No newline at end of file
+
+    // Lista w body jak dotychczas, kursor następnej strony w nagłówku
+    private ResponseEntity<List<ReservationDto>> pageResponse(CursorPage<ReservationDto> page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
+    }
+
+    private ResponseEntity<Map<String, String>> badPageRequest(IllegalArgumentException e) {
+        Map<String, String> errorResponse = new HashMap<>();
+        errorResponse.put("error", "Invalid page request");
+        errorResponse.put("message", e.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+    }
+
+    private ResponseEntity<?> serviceBusy(ServiceOverloadedException e) {
+        Map<String, String> errorResponse = new HashMap<>();
+        errorResponse.put("error", "Service busy");
+        errorResponse.put("message", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(errorResponse);
+    }
+}
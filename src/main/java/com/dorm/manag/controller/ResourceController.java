@@ -1,15 +1,21 @@
 package com.dorm.manag.controller;
 
+import com.dorm.manag.dto.ResourceAvailabilityDto;
+import com.dorm.manag.dto.ResourceUtilizationDto;
 import com.dorm.manag.entity.ReservableResource;
 import com.dorm.manag.entity.ResourceType;
 import com.dorm.manag.repository.ReservableResourceRepository;
+import com.dorm.manag.service.AvailabilityService;
+import com.dorm.manag.service.ResourceUtilizationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -22,6 +28,8 @@ import java.util.Map;
 public class ResourceController {
 
     private final ReservableResourceRepository resourceRepository;
+    private final AvailabilityService availabilityService;
+    private final ResourceUtilizationService utilizationService;
 
     @GetMapping
     public ResponseEntity<?> getAllResources() {
@@ -48,6 +56,74 @@ public class ResourceController {
         }
     }
 
+    @GetMapping("/{id}/availability")
+    public ResponseEntity<?> getResourceAvailability(
+            @PathVariable Long id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        try {
+            ResourceAvailabilityDto availability = availabilityService.getAvailability(id, from, to);
+            return ResponseEntity.ok(availability);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", "Invalid time range", "message", e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error computing availability for resource {}: {}", id, e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("error", "Resource not found"));
+        }
+    }
+
+    /**
+     * Free slots across all active resources of a type, e.g.
+     * /api/resources/availability?type=LAUNDRY&from=...&to=...
+     */
+    @GetMapping("/availability")
+    public ResponseEntity<?> getAvailabilityByType(
+            @RequestParam String type,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        try {
+            ResourceType resourceType = ResourceType.valueOf(type.toUpperCase());
+            List<ResourceAvailabilityDto> availability = availabilityService.getAvailabilityByType(resourceType, from, to);
+            return ResponseEntity.ok(availability);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", "Invalid request", "message", e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error computing availability by type: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Failed to compute availability"));
+        }
+    }
+
+    /**
+     * Hour-of-week booking heatmap, e.g. /api/resources/utilization?resourceId=3
+     */
+    @GetMapping("/utilization")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getUtilization(@RequestParam(required = false) Long resourceId) {
+        try {
+            List<ResourceUtilizationDto> heatmaps = utilizationService.getHeatmaps(resourceId);
+            return ResponseEntity.ok(heatmaps);
+        } catch (Exception e) {
+            log.error("Error retrieving utilization: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("error", "Failed to retrieve utilization", "message", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/utilization/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> rebuildUtilization() {
+        if (!utilizationService.startBackfill()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("error", "Utilization rebuild is already running"));
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(Map.of("message", "Utilization rebuild started"));
+    }
+
     @GetMapping("/type/{type}")
     public ResponseEntity<?> getResourcesByType(@PathVariable String type) {
         try {
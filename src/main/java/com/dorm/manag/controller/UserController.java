@@ -1,9 +1,11 @@
 package com.dorm.manag.controller;
 
+import com.dorm.manag.entity.Role;
 import com.dorm.manag.entity.User;
 import com.dorm.manag.service.UserService;
 import com.dorm.manag.dto.UpdateUserRequest;
 import com.dorm.manag.repository.UserRepository;
+import com.dorm.manag.exception.ServiceOverloadedException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
@@ -160,6 +162,28 @@ public class UserController {
         }
     }
 
+    @PutMapping("/{id}/role")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> changeUserRole(
+            @PathVariable Long id,
+            @RequestParam String role) {
+        try {
+            User updatedUser = userService.changeRole(id, Role.valueOf(role.toUpperCase()));
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("message", "User role updated successfully");
+            response.put("user", createUserResponse(updatedUser));
+
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            log.error("Error changing role of user {}: {}", id, e.getMessage());
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Failed to change user role");
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+        }
+    }
+
     @GetMapping("/stats")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<?> getUserStats() {
@@ -199,10 +223,12 @@ public class UserController {
                         .body(Map.of("error", "Invalid old password"));
             }
 
-            user.setPassword(passwordEncoder.encode(newPassword));
-            userRepository.save(user);
+            userService.changePassword(user, newPassword);
 
             return ResponseEntity.ok(Map.of("message", "Password changed successfully"));
+        } catch (ServiceOverloadedException e) {
+            // 503 + Retry-After z GlobalExceptionHandler
+            throw e;
         } catch (Exception e) {
             log.error("Error changing password: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
@@ -0,0 +1,97 @@
+package com.dorm.manag.controller;
+
+import com.dorm.manag.dto.CreateReservationRequest;
+import com.dorm.manag.dto.WaitlistEntryDto;
+import com.dorm.manag.entity.User;
+import com.dorm.manag.service.UserService;
+import com.dorm.manag.service.WaitlistService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/waitlist")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class WaitlistController {
+
+    private final WaitlistService waitlistService;
+    private final UserService userService;
+
+    @PostMapping
+    public ResponseEntity<?> joinWaitlist(
+            @Valid @RequestBody CreateReservationRequest request,
+            Authentication authentication) {
+        try {
+            User user = currentUser(authentication);
+
+            WaitlistEntryDto entry = waitlistService.join(request, user);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("message", "Added to waitlist, you will be notified when the slot becomes free");
+            response.put("entry", entry);
+
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (Exception e) {
+            log.error("Error joining waitlist: {}", e.getMessage());
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Failed to join waitlist");
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+        }
+    }
+
+    @GetMapping("/my")
+    public ResponseEntity<?> getMyWaitlist(Authentication authentication) {
+        try {
+            User user = currentUser(authentication);
+
+            List<WaitlistEntryDto> entries = waitlistService.getWaitingEntries(user);
+
+            return ResponseEntity.ok(entries);
+        } catch (Exception e) {
+            log.error("Error retrieving waitlist: {}", e.getMessage());
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Failed to retrieve waitlist");
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+        }
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> leaveWaitlist(
+            @PathVariable Long id,
+            Authentication authentication) {
+        try {
+            User user = currentUser(authentication);
+
+            WaitlistEntryDto entry = waitlistService.leave(id, user);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("message", "Removed from waitlist");
+            response.put("entry", entry);
+
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            log.error("Error leaving waitlist entry {}: {}", id, e.getMessage());
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Failed to leave waitlist");
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+        }
+    }
+
+    private User currentUser(Authentication authentication) {
+        return userService.findByUsername(authentication.getName())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+}
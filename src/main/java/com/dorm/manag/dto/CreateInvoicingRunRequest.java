@@ -0,0 +1,34 @@
+package com.dorm.manag.dto;
+
+import jakarta.validation.constraints.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Bulk rent invoicing for one billing period. Amount, due date and
+ * description fall back to app.payments.invoicing when not given; they are
+ * ignored when an interrupted run of the same period is resumed.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreateInvoicingRunRequest {
+
+    @NotBlank(message = "Billing period is required")
+    @Pattern(regexp = "\\d{4}-(0[1-9]|1[0-2])", message = "Billing period must be in yyyy-MM format")
+    private String billingPeriod;
+
+    @DecimalMin(value = "0.01", message = "Amount must be greater than 0")
+    @DecimalMax(value = "10000.00", message = "Amount cannot exceed 10,000")
+    @Digits(integer = 8, fraction = 2, message = "Invalid amount format")
+    private BigDecimal amount;
+
+    private LocalDateTime dueDate;
+
+    @Size(min = 5, max = 255, message = "Description must be between 5 and 255 characters")
+    private String description;
+}
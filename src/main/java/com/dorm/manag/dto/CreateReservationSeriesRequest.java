@@ -0,0 +1,70 @@
+package com.dorm.manag.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.validation.constraints.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Recurring booking: the first occurrence plus a simple RRULE-like pattern
+ * (FREQ=DAILY|WEEKLY, INTERVAL, COUNT)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreateReservationSeriesRequest {
+
+    public enum Frequency {
+        DAILY, WEEKLY
+    }
+
+    @NotNull(message = "Resource ID is required")
+    private Long resourceId;
+
+    @NotNull(message = "Start time is required")
+    @Future(message = "Start time must be in the future")
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime startTime;
+
+    @NotNull(message = "End time is required")
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime endTime;
+
+    @NotNull(message = "Frequency is required")
+    private Frequency frequency = Frequency.WEEKLY;
+
+    @Min(value = 1, message = "Interval must be at least 1")
+    @Max(value = 4, message = "Interval cannot exceed 4")
+    private Integer interval = 1;
+
+    @NotNull(message = "Number of occurrences is required")
+    @Min(value = 1, message = "Series must have at least 1 occurrence")
+    @Max(value = 52, message = "Series cannot exceed 52 occurrences")
+    private Integer occurrences;
+
+    @Min(value = 1, message = "Number of people must be at least 1")
+    @Max(value = 50, message = "Number of people cannot exceed 50")
+    private Integer numberOfPeople = 1;
+
+    @Size(max = 500, message = "Notes cannot exceed 500 characters")
+    private String notes;
+
+    /**
+     * Start times of all occurrences, in order
+     */
+    public List<LocalDateTime> expandStartTimes() {
+        int step = interval != null ? interval : 1;
+        List<LocalDateTime> starts = new ArrayList<>(occurrences);
+        for (int i = 0; i < occurrences; i++) {
+            starts.add(frequency == Frequency.DAILY
+                    ? startTime.plusDays((long) i * step)
+                    : startTime.plusWeeks((long) i * step));
+        }
+        return starts;
+    }
+}
@@ -0,0 +1,49 @@
+package com.dorm.manag.dto;
+
+import com.dorm.manag.entity.InvoicingRunStatus;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvoicingRunDto {
+
+    private Long id;
+
+    private String paymentType;
+
+    private String billingPeriod;
+
+    private BigDecimal amount;
+
+    private String currency;
+
+    private String description;
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime dueDate;
+
+    private InvoicingRunStatus status;
+
+    private Long lastUserId;
+
+    private long createdCount;
+
+    private long skippedCount;
+
+    private String startedBy;
+
+    private String failureReason;
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime createdAt;
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime completedAt;
+}
@@ -39,6 +39,8 @@ public class PaymentDto {
 
     private String receiptUrl;
 
+    private String receiptSha256;
+
     private String currency;
 
     private String roomNumber;
@@ -58,6 +60,8 @@ public class PaymentDto {
     @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
     private LocalDateTime periodEnd;
 
+    private String billingPeriod;
+
     private String failureReason;
 
     private boolean overdue;
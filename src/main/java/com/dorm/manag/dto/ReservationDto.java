@@ -104,6 +104,53 @@ public class ReservationDto {
 
     private String statusColor;
 
+    /**
+     * JPQL constructor expression used by the calendar and list queries - the
+     * DTO is built straight from the row, no entities are loaded
+     */
+    public ReservationDto(Long id, Long userId, String userFirstName, String userLastName, String userEmail,
+            String userRoomNumber, Long resourceId, String resourceName, ResourceType resourceType,
+            String resourceLocation, String keyLocation, Boolean requiresKey, LocalDateTime startTime,
+            LocalDateTime endTime, ReservationStatus status, Integer numberOfPeople, String notes, String adminNotes,
+            LocalDateTime createdAt, LocalDateTime confirmedAt, LocalDateTime checkedInAt, LocalDateTime completedAt,
+            LocalDateTime cancelledAt, BigDecimal totalCost, String paymentStatus, Boolean keyPickedUp,
+            LocalDateTime keyPickedUpAt, String keyPickedUpBy, Boolean keyReturned, LocalDateTime keyReturnedAt,
+            String keyReturnedTo, String cancellationReason, Boolean reminderSent) {
+        this.id = id;
+        this.userId = userId;
+        this.userFullName = userFirstName + " " + userLastName;
+        this.userEmail = userEmail;
+        this.userRoomNumber = userRoomNumber;
+        this.resourceId = resourceId;
+        this.resourceName = resourceName;
+        this.resourceType = resourceType;
+        this.resourceLocation = resourceLocation;
+        this.keyLocation = keyLocation;
+        this.requiresKey = requiresKey;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.status = status;
+        this.numberOfPeople = numberOfPeople;
+        this.notes = notes;
+        this.adminNotes = adminNotes;
+        this.createdAt = createdAt;
+        this.confirmedAt = confirmedAt;
+        this.checkedInAt = checkedInAt;
+        this.completedAt = completedAt;
+        this.cancelledAt = cancelledAt;
+        this.totalCost = totalCost;
+        this.paymentStatus = paymentStatus;
+        this.keyPickedUp = keyPickedUp;
+        this.keyPickedUpAt = keyPickedUpAt;
+        this.keyPickedUpBy = keyPickedUpBy;
+        this.keyReturned = keyReturned;
+        this.keyReturnedAt = keyReturnedAt;
+        this.keyReturnedTo = keyReturnedTo;
+        this.cancellationReason = cancellationReason;
+        this.reminderSent = reminderSent;
+        calculateFields();
+    }
+
     public void calculateFields() {
         if (startTime != null && endTime != null) {
             this.durationMinutes = (int) java.time.Duration.between(startTime, endTime).toMinutes();
@@ -0,0 +1,23 @@
+package com.dorm.manag.dto;
+
+import com.dorm.manag.entity.ResourceType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResourceAvailabilityDto {
+
+    private Long resourceId;
+    private String resourceName;
+    private ResourceType resourceType;
+    private String location;
+    private Integer slotMinutes;
+
+    // Wolne okna, wyrównane do reservationInterval
+    private List<AvailableSlotDto> freeSlots;
+}
@@ -0,0 +1,31 @@
+package com.dorm.manag.dto;
+
+import com.dorm.manag.entity.ResourceType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Hour-of-week heatmap of one resource. Rows are days of the week (Monday
+ * first), columns are hours 0-23.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResourceUtilizationDto {
+
+    private Long resourceId;
+    private String resourceName;
+    private ResourceType resourceType;
+
+    // Okno [from, to)
+    private LocalDate from;
+    private LocalDate to;
+
+    private int[][] bookedMinutes;
+
+    // Średni udział zarezerwowanych minut w godzinie, 0.0 - 1.0
+    private double[][] occupancy;
+}
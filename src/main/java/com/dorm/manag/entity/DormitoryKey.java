@@ -1,16 +1,23 @@
 package com.dorm.manag.entity;
 
+import com.dorm.manag.config.HibernateCacheConfig;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateCacheConfig.KEYS)
+@NaturalIdCache(region = HibernateCacheConfig.KEYS_NATURAL_ID)
 @Table(name = "dormitory_keys")
 @Data
 @NoArgsConstructor
@@ -21,6 +28,7 @@ public class DormitoryKey {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @NaturalId
     @Column(name = "key_code", unique = true, nullable = false)
     private String keyCode; // Unique identifier like "R-201-A" or "LAU-01"
 
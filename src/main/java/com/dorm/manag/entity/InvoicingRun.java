@@ -0,0 +1,81 @@
+package com.dorm.manag.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One bulk invoicing run per payment type and billing period. lastUserId is
+ * the checkpoint: students are processed in id order and the checkpoint moves
+ * in the same transaction as each page of inserted payments, so a resumed run
+ * continues exactly where the previous one stopped.
+ */
+@Entity
+@Table(name = "invoicing_runs",
+        uniqueConstraints = @UniqueConstraint(name = "uk_invoicing_runs_type_period",
+                columnNames = { "payment_type", "billing_period" }))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvoicingRun {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "payment_type", nullable = false, length = 50)
+    private String paymentType;
+
+    @Column(name = "billing_period", nullable = false, length = 7)
+    private String billingPeriod;
+
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal amount;
+
+    @Column(length = 3, nullable = false)
+    private String currency = "PLN";
+
+    @Column(nullable = false)
+    private String description;
+
+    @Column(name = "due_date", nullable = false)
+    private LocalDateTime dueDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private InvoicingRunStatus status = InvoicingRunStatus.RUNNING;
+
+    // Checkpoint - id ostatniego przetworzonego studenta
+    @Column(name = "last_user_id", nullable = false)
+    private Long lastUserId = 0L;
+
+    @Column(name = "created_count", nullable = false)
+    private long createdCount;
+
+    // Studenci, którzy mieli już płatność za ten okres
+    @Column(name = "skipped_count", nullable = false)
+    private long skippedCount;
+
+    @Column(name = "started_by", length = 100)
+    private String startedBy;
+
+    @Column(name = "failure_reason", length = 1000)
+    private String failureReason;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+}
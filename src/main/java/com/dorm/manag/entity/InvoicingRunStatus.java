@@ -0,0 +1,25 @@
+package com.dorm.manag.entity;
+
+/**
+ * State of a bulk invoicing run
+ */
+public enum InvoicingRunStatus {
+    /**
+     * Run is generating payments (or was interrupted and can be resumed)
+     */
+    RUNNING,
+
+    /**
+     * Every active student has a payment for the billing period
+     */
+    COMPLETED,
+
+    /**
+     * Run stopped on an error; starting it again resumes from the checkpoint
+     */
+    FAILED;
+
+    public boolean canBeResumed() {
+        return this != COMPLETED;
+    }
+}
@@ -11,7 +11,9 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "payments")
+@Table(name = "payments",
+        uniqueConstraints = @UniqueConstraint(name = "uk_payments_user_type_period",
+                columnNames = { "user_id", "payment_type", "billing_period" }))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -51,6 +53,10 @@ public class Payment {
     @Column(name = "receipt_url")
     private String receiptUrl; // URL to PDF receipt
 
+    // Rendered receipt in the receipt store, null until rendered
+    @Column(name = "receipt_sha256", length = 64)
+    private String receiptSha256;
+
     @Column(name = "due_date")
     private LocalDateTime dueDate;
 
@@ -81,6 +87,10 @@ public class Payment {
     @Column(name = "period_end")
     private LocalDateTime periodEnd;
 
+    // yyyy-MM okresu rozliczeniowego - tylko dla płatności z fakturowania zbiorczego
+    @Column(name = "billing_period", length = 7)
+    private String billingPeriod;
+
     // Constructors
     public Payment(User user, BigDecimal amount, PaymentMethod paymentMethod, String description) {
         this.user = user;
@@ -11,7 +11,11 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "reservations")
+@Table(name = "reservations", indexes = {
+        @Index(name = "idx_reservations_user_resource_start", columnList = "user_id, resource_id, start_time"),
+        @Index(name = "idx_reservations_status_start", columnList = "status, start_time"),
+        @Index(name = "idx_reservations_resource_start", columnList = "resource_id, start_time")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
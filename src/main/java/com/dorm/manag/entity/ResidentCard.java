@@ -1,15 +1,22 @@
 package com.dorm.manag.entity;
 
+import com.dorm.manag.config.HibernateCacheConfig;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateCacheConfig.RESIDENT_CARDS)
+@NaturalIdCache(region = HibernateCacheConfig.RESIDENT_CARDS_NATURAL_ID)
 @Table(name = "resident_cards")
 @Data
 @NoArgsConstructor
@@ -24,6 +31,7 @@ public class ResidentCard {
     @JoinColumn(name = "user_id", nullable = false, unique = true)
     private User user;
 
+    @NaturalId(mutable = true)
     @Column(name = "qr_code", unique = true, nullable = false)
     private String qrCode;
 
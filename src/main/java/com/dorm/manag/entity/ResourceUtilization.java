@@ -0,0 +1,42 @@
+package com.dorm.manag.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Minutes booked on one resource within one clock hour of one day. Maintained
+ * incrementally from reservation events; rebuildable from reservation history.
+ */
+@Entity
+@Table(name = "resource_utilization", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_resource_utilization_bucket", columnNames = { "resource_id", "bucket_date",
+                "bucket_hour" })
+}, indexes = {
+        @Index(name = "idx_resource_utilization_date", columnList = "bucket_date")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResourceUtilization {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "resource_id", nullable = false)
+    private Long resourceId;
+
+    @Column(name = "bucket_date", nullable = false)
+    private LocalDate bucketDate;
+
+    // 0-23
+    @Column(name = "bucket_hour", nullable = false)
+    private Integer bucketHour;
+
+    @Column(name = "booked_minutes", nullable = false)
+    private Integer bookedMinutes = 0;
+}
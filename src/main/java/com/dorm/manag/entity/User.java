@@ -1,15 +1,22 @@
 package com.dorm.manag.entity;
 
+import com.dorm.manag.config.HibernateCacheConfig;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateCacheConfig.USERS)
+@NaturalIdCache(region = HibernateCacheConfig.USERS_NATURAL_ID)
 @Table(name = "users")
 @Data
 @NoArgsConstructor
@@ -20,6 +27,7 @@ public class User {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @NaturalId
     @Column(unique = true, nullable = false)
     private String username;
 
@@ -69,6 +77,14 @@ public class User {
     @Column(name = "enabled")
     private boolean enabled = true;
 
+    // Bumped on deactivation, role and password changes to revoke issued JWTs
+    @Column(name = "token_version")
+    private Integer tokenVersion = 0;
+
+    // Secret part of the personal .ics feed URL; null until the user asks for it
+    @Column(name = "calendar_token", unique = true, length = 64)
+    private String calendarToken;
+
     // Constructors
     public User(String username, String email, String password, String firstName, String lastName) {
         this.username = username;
@@ -101,6 +117,10 @@ public class User {
         return this.role == Role.RECEPTIONIST;
     }
 
+    public int getCurrentTokenVersion() {
+        return tokenVersion != null ? tokenVersion : 0;
+    }
+
     // Custom toString to avoid password exposure
     @Override
     public String toString() {
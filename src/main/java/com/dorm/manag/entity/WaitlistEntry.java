@@ -0,0 +1,80 @@
+package com.dorm.manag.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "reservation_waitlist", indexes = {
+        @Index(name = "idx_waitlist_resource_status_start", columnList = "resource_id, status, start_time"),
+        @Index(name = "idx_waitlist_user_status", columnList = "user_id, status")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WaitlistEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "resource_id", nullable = false)
+    private ReservableResource resource;
+
+    @Column(name = "start_time", nullable = false)
+    private LocalDateTime startTime;
+
+    @Column(name = "end_time", nullable = false)
+    private LocalDateTime endTime;
+
+    @Column(name = "number_of_people")
+    private Integer numberOfPeople = 1;
+
+    @Column(columnDefinition = "TEXT")
+    private String notes;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private WaitlistStatus status = WaitlistStatus.WAITING;
+
+    // Kolejność w kolejce - kto pierwszy się zapisał
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "promoted_at")
+    private LocalDateTime promotedAt;
+
+    @Column(name = "reservation_id")
+    private Long reservationId;
+
+    public WaitlistEntry(User user, ReservableResource resource, LocalDateTime startTime, LocalDateTime endTime) {
+        this.user = user;
+        this.resource = resource;
+        this.startTime = startTime;
+        this.endTime = endTime;
+    }
+
+    public void promote(Reservation reservation) {
+        this.status = WaitlistStatus.PROMOTED;
+        this.promotedAt = LocalDateTime.now();
+        this.reservationId = reservation.getId();
+    }
+
+    public void expire() {
+        this.status = WaitlistStatus.EXPIRED;
+    }
+
+    public void cancel() {
+        this.status = WaitlistStatus.CANCELLED;
+    }
+}
@@ -0,0 +1,36 @@
+package com.dorm.manag.entity;
+
+/**
+ * Enum representing the status of a waitlist entry
+ */
+public enum WaitlistStatus {
+    /**
+     * User is waiting for the slot to become free
+     */
+    WAITING("Waiting"),
+
+    /**
+     * Slot became free and a reservation was created for the user
+     */
+    PROMOTED("Promoted"),
+
+    /**
+     * Requested slot started before it became free
+     */
+    EXPIRED("Expired"),
+
+    /**
+     * User left the waitlist
+     */
+    CANCELLED("Cancelled");
+
+    private final String displayName;
+
+    WaitlistStatus(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+}
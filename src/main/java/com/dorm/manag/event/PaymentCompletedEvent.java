@@ -0,0 +1,12 @@
+package com.dorm.manag.event;
+
+import lombok.Value;
+
+/**
+ * Published inside the transaction that moved a payment to COMPLETED
+ */
+@Value
+public class PaymentCompletedEvent {
+
+    Long paymentId;
+}
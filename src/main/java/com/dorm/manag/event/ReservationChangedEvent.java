@@ -0,0 +1,43 @@
+package com.dorm.manag.event;
+
+import com.dorm.manag.entity.Reservation;
+import com.dorm.manag.entity.ReservationStatus;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published by ReservationService whenever a reservation is created or changes
+ * status. Listeners that keep derived state should use
+ * {@code @TransactionalEventListener} so they only see committed changes.
+ */
+@Value
+public class ReservationChangedEvent {
+
+    Long reservationId;
+    Long resourceId;
+    Long userId;
+    LocalDateTime startTime;
+    LocalDateTime endTime;
+    ReservationStatus status;
+    /** null for a newly created reservation */
+    ReservationStatus previousStatus;
+
+    public static ReservationChangedEvent of(Reservation reservation, ReservationStatus previousStatus) {
+        return new ReservationChangedEvent(
+                reservation.getId(),
+                reservation.getResource().getId(),
+                reservation.getUser().getId(),
+                reservation.getStartTime(),
+                reservation.getEndTime(),
+                reservation.getStatus(),
+                previousStatus);
+    }
+
+    /**
+     * True when the reservation stopped blocking its time slot
+     */
+    public boolean isSlotReleased() {
+        return previousStatus != null && previousStatus.isActive() && !status.isActive();
+    }
+}
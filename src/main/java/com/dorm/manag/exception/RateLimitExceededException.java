@@ -0,0 +1,19 @@
+package com.dorm.manag.exception;
+
+/**
+ * Thrown when a client exceeds a configured request limit. Mapped to
+ * HTTP 429 with a Retry-After header.
+ */
+public class RateLimitExceededException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public RateLimitExceededException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,19 @@
+package com.dorm.manag.exception;
+
+/**
+ * Thrown when a bounded resource (e.g. the password hashing pool) is
+ * saturated. Mapped to HTTP 503 with a Retry-After header.
+ */
+public class ServiceOverloadedException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public ServiceOverloadedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,47 @@
+package com.dorm.manag.repository;
+
+import com.dorm.manag.entity.InvoicingRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface InvoicingRunRepository extends JpaRepository<InvoicingRun, Long> {
+
+    Optional<InvoicingRun> findByPaymentTypeAndBillingPeriod(String paymentType, String billingPeriod);
+
+    List<InvoicingRun> findAllByOrderByBillingPeriodDesc();
+
+    // Checkpoint przesuwa się tylko z miejsca, z którego strona była czytana
+    @Modifying
+    @Query("UPDATE InvoicingRun r SET r.lastUserId = :lastUserId, r.createdCount = r.createdCount + :created, " +
+            "r.skippedCount = r.skippedCount + :skipped, r.updatedAt = :now " +
+            "WHERE r.id = :id AND r.lastUserId = :afterUserId AND r.status = 'RUNNING'")
+    int advanceCheckpoint(@Param("id") Long id,
+            @Param("afterUserId") Long afterUserId,
+            @Param("lastUserId") Long lastUserId,
+            @Param("created") long created,
+            @Param("skipped") long skipped,
+            @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE InvoicingRun r SET r.status = 'RUNNING', r.failureReason = NULL, r.updatedAt = :now " +
+            "WHERE r.id = :id AND r.status = 'FAILED'")
+    int markResumed(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE InvoicingRun r SET r.status = 'COMPLETED', r.completedAt = :now, r.updatedAt = :now " +
+            "WHERE r.id = :id AND r.status = 'RUNNING'")
+    int markCompleted(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE InvoicingRun r SET r.status = 'FAILED', r.failureReason = :reason, r.updatedAt = :now " +
+            "WHERE r.id = :id AND r.status = 'RUNNING'")
+    int markFailed(@Param("id") Long id, @Param("reason") String reason, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,38 @@
+package com.dorm.manag.repository;
+
+import com.dorm.manag.entity.JobLock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface JobLockRepository extends JpaRepository<JobLock, String> {
+
+        // Przejęcie wygasłej dzierżawy albo przedłużenie własnej - atomowo w jednym UPDATE
+        @Modifying
+        @Query("UPDATE JobLock l SET l.lockedBy = :owner, l.lockedAt = :now, l.lockedUntil = :until " +
+                        "WHERE l.name = :name AND (l.lockedUntil <= :now OR l.lockedBy = :owner)")
+        int tryAcquire(@Param("name") String name,
+                        @Param("owner") String owner,
+                        @Param("now") LocalDateTime now,
+                        @Param("until") LocalDateTime until);
+
+        // Natywny INSERT - save() zrobiłby merge, który przy wyścigu nadpisałby cudzy wiersz
+        @Modifying
+        @Query(value = "INSERT INTO job_locks (name, locked_by, locked_at, locked_until) " +
+                        "VALUES (:name, :owner, :now, :until)", nativeQuery = true)
+        int insert(@Param("name") String name,
+                        @Param("owner") String owner,
+                        @Param("now") LocalDateTime now,
+                        @Param("until") LocalDateTime until);
+
+        @Modifying
+        @Query("UPDATE JobLock l SET l.lockedUntil = :now WHERE l.name = :name AND l.lockedBy = :owner")
+        int release(@Param("name") String name,
+                        @Param("owner") String owner,
+                        @Param("now") LocalDateTime now);
+}
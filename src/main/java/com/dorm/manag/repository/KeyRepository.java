@@ -3,14 +3,18 @@ package com.dorm.manag.repository;
 import com.dorm.manag.entity.DormitoryKey;
 import com.dorm.manag.entity.KeyStatus;
 import com.dorm.manag.entity.KeyType;
-import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface KeyRepository extends JpaRepository<DormitoryKey, Long> {
+public interface KeyRepository extends NaturalIdRepository<DormitoryKey, Long> {
+
+    default Optional<DormitoryKey> findByKeyCode(String keyCode) {
+        return findBySimpleNaturalId(keyCode);
+    }
 
     List<DormitoryKey> findByStatus(KeyStatus status);
 
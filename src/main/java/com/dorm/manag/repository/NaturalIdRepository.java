@@ -0,0 +1,17 @@
+package com.dorm.manag.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.repository.NoRepositoryBean;
+
+import java.util.Optional;
+
+/**
+ * Repository with a lookup by the entity's @NaturalId. Goes through
+ * Hibernate's natural-id resolution, so it is served from the second-level
+ * cache when the entity is annotated with @NaturalIdCache.
+ */
+@NoRepositoryBean
+public interface NaturalIdRepository<T, ID> extends JpaRepository<T, ID> {
+
+    Optional<T> findBySimpleNaturalId(Object naturalId);
+}
@@ -7,6 +7,7 @@ import com.dorm.manag.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -105,6 +106,71 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
 
     Optional<Payment> findByTransactionId(String transactionId);
 
+    @Query("SELECT p.id FROM Payment p WHERE p.externalPaymentId = :externalPaymentId")
+    Optional<Long> findIdByExternalPaymentId(@Param("externalPaymentId") String externalPaymentId);
+
+    // Processing state machine - każde przejście warunkowe na status, wygrywa pierwszy (poller vs webhook)
+    @Modifying
+    @Query("UPDATE Payment p SET p.status = 'PROCESSING', p.failureReason = NULL, p.updatedAt = :now " +
+            "WHERE p.id = :id AND p.status = 'PENDING'")
+    int markProcessing(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE Payment p SET p.externalPaymentId = :externalPaymentId, p.updatedAt = :now " +
+            "WHERE p.id = :id AND p.status = 'PROCESSING'")
+    int attachExternalPaymentId(@Param("id") Long id,
+            @Param("externalPaymentId") String externalPaymentId,
+            @Param("now") LocalDateTime now);
+
+    // Bramka nie zna zlecenia (np. restart) - poller wyśle je ponownie z tym samym kluczem idempotencji
+    @Modifying
+    @Query("UPDATE Payment p SET p.externalPaymentId = NULL, p.updatedAt = :now " +
+            "WHERE p.id = :id AND p.status = 'PROCESSING' AND p.externalPaymentId = :externalPaymentId")
+    int detachExternalPaymentId(@Param("id") Long id,
+            @Param("externalPaymentId") String externalPaymentId,
+            @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE Payment p SET p.status = 'COMPLETED', p.completedAt = :now, p.updatedAt = :now, " +
+            "p.receiptUrl = :receiptUrl WHERE p.id = :id AND p.status = 'PROCESSING'")
+    int markCompleted(@Param("id") Long id, @Param("receiptUrl") String receiptUrl, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE Payment p SET p.status = 'FAILED', p.failureReason = :reason, p.updatedAt = :now " +
+            "WHERE p.id = :id AND p.status = 'PROCESSING'")
+    int markFailed(@Param("id") Long id, @Param("reason") String reason, @Param("now") LocalDateTime now);
+
+    // Zlecenia, które nie dotarły do bramki (restart, pełna kolejka)
+    @Query("SELECT p.id FROM Payment p WHERE p.status = 'PROCESSING' AND p.externalPaymentId IS NULL AND " +
+            "p.updatedAt < :before ORDER BY p.id")
+    List<Long> findStalledSubmissions(@Param("before") LocalDateTime before, Pageable pageable);
+
+    // (id, externalPaymentId) - czekają na wynik z bramki
+    @Query("SELECT p.id, p.externalPaymentId FROM Payment p WHERE p.status = 'PROCESSING' AND " +
+            "p.externalPaymentId IS NOT NULL ORDER BY p.updatedAt")
+    List<Object[]> findAwaitingGateway(Pageable pageable);
+
+    // Receipts
+    @Query("SELECT p FROM Payment p JOIN FETCH p.user WHERE p.id = :id")
+    Optional<Payment> findWithUserById(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE Payment p SET p.receiptSha256 = :sha256, p.receiptUrl = :receiptUrl " +
+            "WHERE p.id = :id AND p.status = 'COMPLETED'")
+    int attachReceipt(@Param("id") Long id,
+            @Param("sha256") String sha256,
+            @Param("receiptUrl") String receiptUrl);
+
+    @Query("SELECT p.id FROM Payment p WHERE p.status = 'COMPLETED' AND p.receiptSha256 IS NULL ORDER BY p.id")
+    List<Long> findIdsWithoutReceipt(Pageable pageable);
+
+    // Bulk invoicing - którzy z tej strony studentów mają już płatność za okres
+    @Query("SELECT p.user.id FROM Payment p WHERE p.paymentType = :paymentType AND " +
+            "p.billingPeriod = :billingPeriod AND p.user.id IN :userIds")
+    List<Long> findInvoicedUserIds(@Param("paymentType") String paymentType,
+            @Param("billingPeriod") String billingPeriod,
+            @Param("userIds") List<Long> userIds);
+
     // Recent payments
     @Query("SELECT p FROM Payment p ORDER BY p.createdAt DESC")
     Page<Payment> findAllOrderByCreatedAtDesc(Pageable pageable);
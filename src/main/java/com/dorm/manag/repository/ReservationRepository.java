@@ -1,13 +1,21 @@
 package com.dorm.manag.repository;
 
+import com.dorm.manag.dto.ReservationDto;
 import com.dorm.manag.entity.*;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface ReservationRepository extends JpaRepository<Reservation, Long> {
@@ -38,6 +46,38 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
                         @Param("start") LocalDateTime start,
                         @Param("end") LocalDateTime end);
 
+        // Calendar / admin list - projekcja DTO + keyset zamiast OFFSET
+        String DTO_PROJECTION = "SELECT new com.dorm.manag.dto.ReservationDto(r.id, u.id, u.firstName, u.lastName, " +
+                        "u.email, u.roomNumber, res.id, res.name, res.resourceType, res.location, res.keyLocation, " +
+                        "res.requiresKey, r.startTime, r.endTime, r.status, r.numberOfPeople, r.notes, r.adminNotes, " +
+                        "r.createdAt, r.confirmedAt, r.checkedInAt, r.completedAt, r.cancelledAt, r.totalCost, " +
+                        "r.paymentStatus, r.keyPickedUp, r.keyPickedUpAt, r.keyPickedUpBy, r.keyReturned, " +
+                        "r.keyReturnedAt, r.keyReturnedTo, r.cancellationReason, r.reminderSent) " +
+                        "FROM Reservation r JOIN r.user u JOIN r.resource res ";
+
+        // idx_reservations_resource_start: (resource_id, start_time), kursor (startTime, id)
+        @Query(DTO_PROJECTION + "WHERE r.resource.id = :resourceId AND r.startTime <= :end AND " +
+                        "(r.startTime > :afterStart OR (r.startTime = :afterStart AND r.id > :afterId)) " +
+                        "ORDER BY r.startTime ASC, r.id ASC")
+        List<ReservationDto> findResourceCalendarPage(@Param("resourceId") Long resourceId,
+                        @Param("afterStart") LocalDateTime afterStart,
+                        @Param("afterId") Long afterId,
+                        @Param("end") LocalDateTime end,
+                        Pageable pageable);
+
+        // Najnowsze najpierw, kursor po id
+        @Query(DTO_PROJECTION + "WHERE r.id < :beforeId ORDER BY r.id DESC")
+        List<ReservationDto> findPageBefore(@Param("beforeId") Long beforeId, Pageable pageable);
+
+        // Listy bez N+1 - użytkownik i zasób w tym samym zapytaniu
+        @Query(DTO_PROJECTION + "WHERE u.id = :userId ORDER BY r.startTime DESC")
+        List<ReservationDto> findDtosByUserId(@Param("userId") Long userId);
+
+        @Query(DTO_PROJECTION + "WHERE r.status = 'CONFIRMED' AND r.startTime BETWEEN :now AND :futureTime " +
+                        "ORDER BY r.startTime ASC")
+        List<ReservationDto> findUpcomingDtos(@Param("now") LocalDateTime now,
+                        @Param("futureTime") LocalDateTime futureTime);
+
         // Availability check
         @Query("SELECT r FROM Reservation r WHERE r.resource.id = :resourceId AND " +
                         "r.status IN ('CONFIRMED', 'CHECKED_IN') AND " +
@@ -46,14 +86,30 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
                         @Param("startTime") LocalDateTime startTime,
                         @Param("endTime") LocalDateTime endTime);
 
-        // User limits check
+        // Availability index (id, resourceId, startTime, endTime)
+        @Query("SELECT r.id, r.resource.id, r.startTime, r.endTime FROM Reservation r WHERE " +
+                        "r.status IN ('CONFIRMED', 'CHECKED_IN') AND r.endTime > :since")
+        List<Object[]> findActiveIntervalsEndingAfter(@Param("since") LocalDateTime since);
+
+        // Recurring series: everything on the resource that can block a slot or count
+        // towards a daily limit, for the whole series window in one query
+        // (userId, startTime, endTime, status)
+        @Query("SELECT r.user.id, r.startTime, r.endTime, r.status FROM Reservation r WHERE " +
+                        "r.resource.id = :resourceId AND r.status NOT IN ('CANCELLED', 'NO_SHOW') AND " +
+                        "r.startTime < :to AND r.endTime > :from")
+        List<Object[]> findSeriesWindow(@Param("resourceId") Long resourceId,
+                        @Param("from") LocalDateTime from,
+                        @Param("to") LocalDateTime to);
+
+        // User limits check - zakres [dayStart, dayEnd) zamiast DATE(), żeby działał indeks
         @Query("SELECT COUNT(r) FROM Reservation r WHERE r.user.id = :userId AND " +
                         "r.resource.id = :resourceId AND " +
-                        "DATE(r.startTime) = DATE(:date) AND " +
+                        "r.startTime >= :dayStart AND r.startTime < :dayEnd AND " +
                         "r.status NOT IN ('CANCELLED', 'NO_SHOW')")
-        long countUserReservationsForResourceOnDate(@Param("userId") Long userId,
+        long countUserReservationsForResourceBetween(@Param("userId") Long userId,
                         @Param("resourceId") Long resourceId,
-                        @Param("date") LocalDateTime date);
+                        @Param("dayStart") LocalDateTime dayStart,
+                        @Param("dayEnd") LocalDateTime dayEnd);
 
         // Find upcoming reservations
         @Query("SELECT r FROM Reservation r WHERE r.status = 'CONFIRMED' AND " +
@@ -66,6 +122,101 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
                         "r.endTime < :currentTime")
         List<Reservation> findOverdueReservations(@Param("currentTime") LocalDateTime currentTime);
 
+        // Sweeper - kandydaci jako projekcja (id, resourceId, userId, startTime, endTime), bez encji
+        @Query("SELECT r.id, r.resource.id, r.user.id, r.startTime, r.endTime FROM Reservation r " +
+                        "WHERE r.status = :status AND r.startTime < :startedBefore ORDER BY r.id")
+        List<Object[]> findSweepCandidatesStartedBefore(@Param("status") ReservationStatus status,
+                        @Param("startedBefore") LocalDateTime startedBefore,
+                        Pageable pageable);
+
+        @Query("SELECT r.id, r.resource.id, r.user.id, r.startTime, r.endTime FROM Reservation r " +
+                        "WHERE r.status = :status AND r.endTime < :endedBefore ORDER BY r.id")
+        List<Object[]> findSweepCandidatesEndedBefore(@Param("status") ReservationStatus status,
+                        @Param("endedBefore") LocalDateTime endedBefore,
+                        Pageable pageable);
+
+        @Query("SELECT r.id FROM Reservation r WHERE r.id IN :ids AND r.status = :status")
+        List<Long> findIdsWithStatus(@Param("ids") Collection<Long> ids, @Param("status") ReservationStatus status);
+
+        // Bulk transitions - warunek na status chroni przed nadpisaniem równoległej zmiany
+        @Modifying
+        @Query("UPDATE Reservation r SET r.status = :to, r.updatedAt = :now, " +
+                        "r.paymentStatus = CASE WHEN r.depositAmount > 0 THEN 'FORFEITED' ELSE r.paymentStatus END " +
+                        "WHERE r.id IN :ids AND r.status = :from")
+        int markNoShow(@Param("ids") Collection<Long> ids,
+                        @Param("from") ReservationStatus from,
+                        @Param("to") ReservationStatus to,
+                        @Param("now") LocalDateTime now);
+
+        @Modifying
+        @Query("UPDATE Reservation r SET r.status = :to, r.completedAt = :now, r.updatedAt = :now " +
+                        "WHERE r.id IN :ids AND r.status = :from")
+        int markCompleted(@Param("ids") Collection<Long> ids,
+                        @Param("from") ReservationStatus from,
+                        @Param("to") ReservationStatus to,
+                        @Param("now") LocalDateTime now);
+
+        @Modifying
+        @Query("UPDATE Reservation r SET r.status = :to, r.updatedAt = :now " +
+                        "WHERE r.id IN :ids AND r.status = :from")
+        int markExpired(@Param("ids") Collection<Long> ids,
+                        @Param("from") ReservationStatus from,
+                        @Param("to") ReservationStatus to,
+                        @Param("now") LocalDateTime now);
+
+        // Reminder wheel refill (id, startTime)
+        @Query("SELECT r.id, r.startTime FROM Reservation r WHERE r.status = 'CONFIRMED' AND " +
+                        "r.reminderSent = false AND r.startTime > :now AND r.startTime <= :until")
+        List<Object[]> findReminderCandidates(@Param("now") LocalDateTime now, @Param("until") LocalDateTime until);
+
+        @Query("SELECT r FROM Reservation r JOIN FETCH r.user JOIN FETCH r.resource WHERE r.id IN :ids AND " +
+                        "r.status = 'CONFIRMED' AND r.reminderSent = false")
+        List<Reservation> findDueForReminder(@Param("ids") Collection<Long> ids);
+
+        @Modifying
+        @Query("UPDATE Reservation r SET r.reminderSent = true WHERE r.id IN :ids AND r.reminderSent = false")
+        int markRemindersSent(@Param("ids") Collection<Long> ids);
+
+        // Utilization backfill (startTime, endTime) - strumień, historia może być duża
+        @Query("SELECT r.startTime, r.endTime FROM Reservation r WHERE r.resource.id = :resourceId AND " +
+                        "r.status IN ('CONFIRMED', 'CHECKED_IN', 'COMPLETED')")
+        @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+        Stream<Object[]> streamBookedIntervals(@Param("resourceId") Long resourceId);
+
+        // Calendar feeds - (count, max updatedAt) over everything in the window, cancellations included,
+        // so that any change moves the feed ETag without reading the events
+        @Query("SELECT COUNT(r), MAX(r.updatedAt) FROM Reservation r WHERE r.user.id = :userId AND " +
+                        "r.startTime >= :from AND r.startTime < :to")
+        List<Object[]> findUserFeedVersion(@Param("userId") Long userId,
+                        @Param("from") LocalDateTime from,
+                        @Param("to") LocalDateTime to);
+
+        @Query("SELECT COUNT(r), MAX(r.updatedAt) FROM Reservation r WHERE r.resource.id = :resourceId AND " +
+                        "r.startTime >= :from AND r.startTime < :to")
+        List<Object[]> findResourceFeedVersion(@Param("resourceId") Long resourceId,
+                        @Param("from") LocalDateTime from,
+                        @Param("to") LocalDateTime to);
+
+        // (id, startTime, endTime, status, updatedAt, resourceName, location, notes) - strumień z kursora
+        @Query("SELECT r.id, r.startTime, r.endTime, r.status, r.updatedAt, res.name, res.location, r.notes " +
+                        "FROM Reservation r JOIN r.resource res WHERE r.user.id = :userId AND " +
+                        "r.status IN ('PENDING', 'CONFIRMED', 'CHECKED_IN', 'COMPLETED') AND " +
+                        "r.startTime >= :from AND r.startTime < :to ORDER BY r.startTime")
+        @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+        Stream<Object[]> streamUserFeed(@Param("userId") Long userId,
+                        @Param("from") LocalDateTime from,
+                        @Param("to") LocalDateTime to);
+
+        // Feed zasobu bez danych osobowych (id, startTime, endTime, status, updatedAt)
+        @Query("SELECT r.id, r.startTime, r.endTime, r.status, r.updatedAt FROM Reservation r " +
+                        "WHERE r.resource.id = :resourceId AND " +
+                        "r.status IN ('PENDING', 'CONFIRMED', 'CHECKED_IN', 'COMPLETED') AND " +
+                        "r.startTime >= :from AND r.startTime < :to ORDER BY r.startTime")
+        @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+        Stream<Object[]> streamResourceFeed(@Param("resourceId") Long resourceId,
+                        @Param("from") LocalDateTime from,
+                        @Param("to") LocalDateTime to);
+
         // Key management
         @Query("SELECT r FROM Reservation r WHERE r.keyPickedUp = true AND r.keyReturned = false")
         List<Reservation> findReservationsWithUnreturnedKeys();
@@ -2,7 +2,6 @@ package com.dorm.manag.repository;
 
 import com.dorm.manag.entity.ResidentCard;
 import com.dorm.manag.entity.User;
-import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -12,11 +11,13 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ResidentCardRepository extends JpaRepository<ResidentCard, Long> {
+public interface ResidentCardRepository extends NaturalIdRepository<ResidentCard, Long> {
 
     Optional<ResidentCard> findByUser(User user);
 
-    Optional<ResidentCard> findByQrCode(String qrCode);
+    default Optional<ResidentCard> findByQrCode(String qrCode) {
+        return findBySimpleNaturalId(qrCode);
+    }
 
     Optional<ResidentCard> findByUserId(Long userId);
 
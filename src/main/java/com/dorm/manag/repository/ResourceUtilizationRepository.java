@@ -0,0 +1,32 @@
+package com.dorm.manag.repository;
+
+import com.dorm.manag.entity.ResourceUtilization;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface ResourceUtilizationRepository extends JpaRepository<ResourceUtilization, Long> {
+
+        // (resourceId, bucketDate, bucketHour, bookedMinutes)
+        @Query("SELECT u.resourceId, u.bucketDate, u.bucketHour, u.bookedMinutes FROM ResourceUtilization u " +
+                        "WHERE u.bucketDate >= :from AND u.bucketDate < :to")
+        List<Object[]> findBucketsBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+        @Modifying
+        @Query("UPDATE ResourceUtilization u SET u.bookedMinutes = u.bookedMinutes + :delta " +
+                        "WHERE u.resourceId = :resourceId AND u.bucketDate = :bucketDate AND u.bucketHour = :bucketHour")
+        int addMinutes(@Param("resourceId") Long resourceId,
+                        @Param("bucketDate") LocalDate bucketDate,
+                        @Param("bucketHour") Integer bucketHour,
+                        @Param("delta") int delta);
+
+        @Modifying
+        @Query("DELETE FROM ResourceUtilization u WHERE u.resourceId = :resourceId")
+        int deleteByResourceId(@Param("resourceId") Long resourceId);
+}
@@ -1,18 +1,21 @@
 package com.dorm.manag.repository;
 
 import com.dorm.manag.entity.User;
-import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends NaturalIdRepository<User, Long> {
 
-    Optional<User> findByUsername(String username);
+    default Optional<User> findByUsername(String username) {
+        return findBySimpleNaturalId(username);
+    }
 
     Optional<User> findByEmail(String email);
 
@@ -32,4 +35,23 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @Query("SELECT u FROM User u WHERE u.isActive = true")
     List<User> findActiveUsers();
 
+    // Token revocation
+    @Query("SELECT u.id, COALESCE(u.tokenVersion, 0) FROM User u")
+    List<Object[]> findAllTokenVersions();
+
+    @Query("SELECT u.id, COALESCE(u.tokenVersion, 0) FROM User u WHERE u.updatedAt > :since")
+    List<Object[]> findTokenVersionsUpdatedSince(@Param("since") LocalDateTime since);
+
+    @Query("SELECT COALESCE(u.tokenVersion, 0) FROM User u WHERE u.id = :id")
+    Optional<Integer> findTokenVersionById(@Param("id") Long id);
+
+    // Calendar feeds
+    @Query("SELECT u.id FROM User u WHERE u.calendarToken = :token AND u.isActive = true")
+    Optional<Long> findActiveIdByCalendarToken(@Param("token") String token);
+
+    // Bulk invoicing - keyset page of active students: id, room number
+    @Query("SELECT u.id, u.roomNumber FROM User u WHERE u.isActive = true AND u.role = 'STUDENT' " +
+            "AND u.id > :afterId ORDER BY u.id")
+    List<Object[]> findActiveStudentsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
 }
\ No newline at end of file
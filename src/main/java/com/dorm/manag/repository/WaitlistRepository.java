@@ -0,0 +1,44 @@
+package com.dorm.manag.repository;
+
+import com.dorm.manag.entity.WaitlistEntry;
+import com.dorm.manag.entity.WaitlistStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface WaitlistRepository extends JpaRepository<WaitlistEntry, Long> {
+
+        // Waiters whose requested slot overlaps a freed slot, first come first served
+        @Query("SELECT w FROM WaitlistEntry w JOIN FETCH w.user WHERE w.resource.id = :resourceId AND " +
+                        "w.status = 'WAITING' AND w.startTime < :end AND w.endTime > :start " +
+                        "ORDER BY w.createdAt ASC, w.id ASC")
+        List<WaitlistEntry> findWaitingOverlapping(@Param("resourceId") Long resourceId,
+                        @Param("start") LocalDateTime start,
+                        @Param("end") LocalDateTime end);
+
+        @Query("SELECT w FROM WaitlistEntry w JOIN FETCH w.resource WHERE w.user.id = :userId AND " +
+                        "w.status = :status ORDER BY w.startTime ASC")
+        List<WaitlistEntry> findByUserAndStatus(@Param("userId") Long userId,
+                        @Param("status") WaitlistStatus status);
+
+        @Query("SELECT COUNT(w) FROM WaitlistEntry w WHERE w.user.id = :userId AND w.status = 'WAITING'")
+        long countWaitingByUser(@Param("userId") Long userId);
+
+        @Query("SELECT COUNT(w) > 0 FROM WaitlistEntry w WHERE w.user.id = :userId AND " +
+                        "w.resource.id = :resourceId AND w.status = 'WAITING' AND " +
+                        "w.startTime < :end AND w.endTime > :start")
+        boolean existsWaitingOverlapping(@Param("userId") Long userId,
+                        @Param("resourceId") Long resourceId,
+                        @Param("start") LocalDateTime start,
+                        @Param("end") LocalDateTime end);
+
+        @Modifying
+        @Query("UPDATE WaitlistEntry w SET w.status = 'EXPIRED' WHERE w.status = 'WAITING' AND w.startTime <= :now")
+        int expireStarted(@Param("now") LocalDateTime now);
+}
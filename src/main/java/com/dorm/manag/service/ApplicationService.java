@@ -12,6 +12,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -26,6 +27,7 @@ public class ApplicationService {
     private final ApplicationRepository applicationRepository;
     private final UserService userService;
     private final PasswordEncoder passwordEncoder;
+    private final TransactionOperations transactionOperations;
 
     @Transactional
     public ApplicationDto submitApplication(CreateApplicationRequest request) {
@@ -198,24 +200,33 @@ public class ApplicationService {
         return convertToDto(savedApplication);
     }
 
-    @Transactional
+    /**
+     * Not transactional: the temporary password is hashed on the bounded hash
+     * pool first, so the wait does not hold a pooled connection
+     */
     public ApplicationDto assignRoom(Long id, String roomNumber, User assignedBy) {
-        DormitoryApplication application = applicationRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Application not found"));
+        // Generate temporary password
+        String tempPassword = "TempPass" + System.currentTimeMillis() % 10000;
+        String encodedPassword = passwordEncoder.encode(tempPassword);
 
-        // Check if room is available (in real implementation, check room availability)
-        application.assignRoom(roomNumber, assignedBy);
+        return transactionOperations.execute(status -> {
+            DormitoryApplication application = applicationRepository.findById(id)
+                    .orElseThrow(() -> new RuntimeException("Application not found"));
 
-        // Create user account for the student
-        User newUser = createUserFromApplication(application);
-        application.setCreatedUser(newUser);
+            // Check if room is available (in real implementation, check room availability)
+            application.assignRoom(roomNumber, assignedBy);
 
-        DormitoryApplication savedApplication = applicationRepository.save(application);
+            // Create user account for the student
+            User newUser = createUserFromApplication(application, encodedPassword);
+            application.setCreatedUser(newUser);
 
-        log.info("Room {} assigned to application {} by {}",
-                roomNumber, application.getApplicationNumber(), assignedBy.getUsername());
+            DormitoryApplication savedApplication = applicationRepository.save(application);
 
-        return convertToDto(savedApplication);
+            log.info("Room {} assigned to application {} by {}",
+                    roomNumber, application.getApplicationNumber(), assignedBy.getUsername());
+
+            return convertToDto(savedApplication);
+        });
     }
 
     @Transactional
@@ -288,17 +299,14 @@ public class ApplicationService {
         return stats;
     }
 
-    private User createUserFromApplication(DormitoryApplication application) {
+    private User createUserFromApplication(DormitoryApplication application, String encodedPassword) {
         // Create username from email prefix
         String username = application.getEmail().substring(0, application.getEmail().indexOf("@"));
 
-        // Generate temporary password
-        String tempPassword = "TempPass" + System.currentTimeMillis() % 10000;
-
         User user = new User();
         user.setUsername(username);
         user.setEmail(application.getEmail());
-        user.setPassword(passwordEncoder.encode(tempPassword));
+        user.setPassword(encodedPassword);
         user.setFirstName(application.getFirstName());
         user.setLastName(application.getLastName());
         user.setPhoneNumber(application.getPhoneNumber());
@@ -306,7 +314,7 @@ public class ApplicationService {
         user.setRole(Role.STUDENT);
         user.setActive(true);
 
-        User savedUser = userService.createUser(user);
+        User savedUser = userService.createUserWithEncodedPassword(user);
 
         log.info("User account created for application: {} -> {}",
                 application.getApplicationNumber(), username);
@@ -1,11 +1,14 @@
 package com.dorm.manag.service;
 
 import com.dorm.manag.config.JwtTokenProvider;
+import com.dorm.manag.config.RateLimitProperties;
 import com.dorm.manag.dto.LoginRequest;
 import com.dorm.manag.dto.RegisterRequest;
 import com.dorm.manag.entity.Role;
 import com.dorm.manag.entity.User;
+import com.dorm.manag.exception.ServiceOverloadedException;
 import com.dorm.manag.repository.UserRepository;
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -15,7 +18,7 @@ import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -30,14 +33,24 @@ public class AuthService {
     private final JwtTokenProvider jwtTokenProvider;
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final TokenRevocationService tokenRevocationService;
+    private final RateLimiterService rateLimiterService;
+    private final RateLimitProperties rateLimitProperties;
+    private final TransactionOperations transactionOperations;
 
     /**
-     * Authenticate user and return JWT token
+     * Authenticate user and return JWT token. Not transactional: the password
+     * check waits on the bounded hash pool and must not hold a pooled
+     * connection meanwhile.
      */
-    @Transactional
     public Map<String, Object> authenticateUser(LoginRequest loginRequest) {
         log.info("Authenticating user: {}", loginRequest.getUsername());
 
+        // Limit per username - rozproszony brute force omija limit per IP
+        if (rateLimitProperties.isEnabled() && loginRequest.getUsername() != null) {
+            rateLimiterService.consume(rateLimitProperties.getUsername(), loginRequest.getUsername().toLowerCase());
+        }
+
         try {
             // ✅ Authenticate
             Authentication authentication = authenticationManager.authenticate(
@@ -47,14 +60,14 @@ public class AuthService {
 
             SecurityContextHolder.getContext().setAuthentication(authentication);
 
-            // ✅ Generate JWT token
-            String jwt = jwtTokenProvider.generateToken(authentication);
-            log.info("JWT token generated successfully for user: {}", loginRequest.getUsername());
-
             // ✅ Get user details
-            User user = userRepository.findByUsername(loginRequest.getUsername())
+            User user = userRepository.findByUsername(authentication.getName())
                     .orElseThrow(() -> new RuntimeException("User not found after authentication"));
 
+            // ✅ Generate JWT token (role, enabled flag and token version as claims)
+            String jwt = jwtTokenProvider.generateToken(user);
+            log.info("JWT token generated successfully for user: {}", loginRequest.getUsername());
+
             // ✅ Build response
             Map<String, Object> response = new HashMap<>();
             response.put("token", jwt);
@@ -64,7 +77,13 @@ public class AuthService {
             log.info("User {} logged in successfully", user.getUsername());
             return response;
 
+        } catch (ServiceOverloadedException ex) {
+            throw ex;
         } catch (AuthenticationException ex) {
+            // DaoAuthenticationProvider opakowuje błędy z retrieveUser()
+            if (ex.getCause() instanceof ServiceOverloadedException overloaded) {
+                throw overloaded;
+            }
             log.error("Authentication failed for user: {}: {}", loginRequest.getUsername(), ex.getMessage());
             throw new RuntimeException("Invalid username or password");
         } catch (Exception ex) {
@@ -76,32 +95,36 @@ public class AuthService {
     /**
      * Register new user
      */
-    @Transactional
     public Map<String, Object> registerUser(RegisterRequest registerRequest) {
         log.info("Registering new user: {}", registerRequest.getUsername());
 
         try {
-            // ✅ Check if username exists
-            if (userRepository.existsByUsername(registerRequest.getUsername())) {
-                throw new RuntimeException("Username already exists");
-            }
-
-            // ✅ Check if email exists
-            if (userRepository.existsByEmail(registerRequest.getEmail())) {
-                throw new RuntimeException("Email already exists");
-            }
-
-            // ✅ Create new user
-            User newUser = new User();
-            newUser.setUsername(registerRequest.getUsername());
-            newUser.setEmail(registerRequest.getEmail());
-            newUser.setPassword(passwordEncoder.encode(registerRequest.getPassword()));
-            newUser.setFirstName(registerRequest.getFirstName());
-            newUser.setLastName(registerRequest.getLastName());
-            newUser.setRole(Role.STUDENT); // Default role
-            newUser.setActive(true);
-
-            User savedUser = userRepository.save(newUser);
+            // Hashowanie przed transakcją - czekanie na pulę haszującą nie blokuje połączenia z bazą
+            String encodedPassword = passwordEncoder.encode(registerRequest.getPassword());
+
+            User savedUser = transactionOperations.execute(status -> {
+                // ✅ Check if username exists
+                if (userRepository.existsByUsername(registerRequest.getUsername())) {
+                    throw new RuntimeException("Username already exists");
+                }
+
+                // ✅ Check if email exists
+                if (userRepository.existsByEmail(registerRequest.getEmail())) {
+                    throw new RuntimeException("Email already exists");
+                }
+
+                // ✅ Create new user
+                User newUser = new User();
+                newUser.setUsername(registerRequest.getUsername());
+                newUser.setEmail(registerRequest.getEmail());
+                newUser.setPassword(encodedPassword);
+                newUser.setFirstName(registerRequest.getFirstName());
+                newUser.setLastName(registerRequest.getLastName());
+                newUser.setRole(Role.STUDENT); // Default role
+                newUser.setActive(true);
+
+                return userRepository.save(newUser);
+            });
             log.info("User {} registered successfully", savedUser.getUsername());
 
             Map<String, Object> response = new HashMap<>();
@@ -110,12 +133,28 @@ public class AuthService {
 
             return response;
 
+        } catch (ServiceOverloadedException ex) {
+            throw ex;
         } catch (Exception ex) {
             log.error("Error during registration: {}", ex.getMessage());
             throw new RuntimeException("Registration error: " + ex.getMessage());
         }
     }
 
+    /**
+     * Revoke the presented token so it cannot be used again
+     */
+    public void logout(String token) {
+        Claims claims = jwtTokenProvider.parseClaims(token);
+        if (claims == null) {
+            return;
+        }
+
+        tokenRevocationService.revoke(claims.getId(), jwtTokenProvider.getUserId(claims), claims.getExpiration());
+        SecurityContextHolder.clearContext();
+        log.info("User {} logged out", claims.getSubject());
+    }
+
     /**
      * Get current user profile
      */
@@ -0,0 +1,217 @@
+package com.dorm.manag.service;
+
+import com.dorm.manag.dto.AvailableSlotDto;
+import com.dorm.manag.dto.ResourceAvailabilityDto;
+import com.dorm.manag.entity.ReservableResource;
+import com.dorm.manag.entity.ResourceType;
+import com.dorm.manag.repository.ReservableResourceRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Free time slots of reservable resources. Opening hours (availableFrom/To,
+ * availableDays), booking window (advanceBookingHours, maxAdvanceDays),
+ * existing bookings from ReservationAvailabilityIndex and cooldownPeriod are
+ * combined in a single sweep over start-ordered intervals.
+ */
+@Slf4j
+@Service
+public class AvailabilityService {
+
+    private static final int DEFAULT_SLOT_MINUTES = 30;
+    private static final int DEFAULT_MAX_ADVANCE_DAYS = 14;
+
+    private final ReservableResourceRepository resourceRepository;
+    private final ReservationAvailabilityIndex availabilityIndex;
+    private final AsyncTaskExecutor taskExecutor;
+
+    public AvailabilityService(ReservableResourceRepository resourceRepository,
+            ReservationAvailabilityIndex availabilityIndex,
+            @Qualifier("applicationTaskExecutor") AsyncTaskExecutor taskExecutor) {
+        this.resourceRepository = resourceRepository;
+        this.availabilityIndex = availabilityIndex;
+        this.taskExecutor = taskExecutor;
+    }
+
+    public ResourceAvailabilityDto getAvailability(Long resourceId, LocalDateTime from, LocalDateTime to) {
+        validateRange(from, to);
+
+        ReservableResource resource = resourceRepository.findById(resourceId)
+                .orElseThrow(() -> new RuntimeException("Resource not found"));
+
+        if (!Boolean.TRUE.equals(resource.getIsActive())) {
+            throw new RuntimeException("Resource is not available");
+        }
+
+        return computeAvailability(resource, from, to, LocalDateTime.now());
+    }
+
+    /**
+     * Availability of every active resource of a type, e.g. "any free laundry
+     * machine at 18:00". Resources are computed in parallel on the shared
+     * application task executor; resources without a free slot are left out.
+     */
+    public List<ResourceAvailabilityDto> getAvailabilityByType(ResourceType type, LocalDateTime from, LocalDateTime to) {
+        validateRange(from, to);
+
+        List<ReservableResource> resources = resourceRepository.findByResourceTypeAndIsActive(type, true);
+        LocalDateTime now = LocalDateTime.now();
+
+        List<CompletableFuture<ResourceAvailabilityDto>> futures = resources.stream()
+                .map(resource -> CompletableFuture.supplyAsync(
+                        () -> computeAvailability(resource, from, to, now), taskExecutor))
+                .toList();
+
+        return futures.stream()
+                .map(CompletableFuture::join)
+                .filter(availability -> !availability.getFreeSlots().isEmpty())
+                .toList();
+    }
+
+    ResourceAvailabilityDto computeAvailability(ReservableResource resource, LocalDateTime from, LocalDateTime to,
+            LocalDateTime now) {
+        int slotMinutes = positiveOr(resource.getReservationInterval(), DEFAULT_SLOT_MINUTES);
+        long step = slotMinutes * 60L;
+        long minLength = Math.max(step, positiveOr(resource.getMinReservationDuration(), 0) * 60L);
+        long cooldown = positiveOr(resource.getCooldownPeriod(), 0) * 60L;
+
+        // Okno rezerwacji: nie wcześniej niż advanceBookingHours, nie dalej niż maxAdvanceDays
+        LocalDateTime earliest = now.plusHours(positiveOr(resource.getAdvanceBookingHours(), 0));
+        LocalDateTime latest = now.plusDays(positiveOr(resource.getMaxAdvanceDays(), DEFAULT_MAX_ADVANCE_DAYS));
+        LocalDateTime rangeStart = from.isAfter(earliest) ? from : earliest;
+        LocalDateTime rangeEnd = to.isBefore(latest) ? to : latest;
+
+        List<AvailableSlotDto> slots = new ArrayList<>();
+        if (rangeStart.isBefore(rangeEnd)) {
+            List<long[]> openWindows = openingWindows(resource, rangeStart, rangeEnd);
+            List<IntervalTree.Interval> booked = openWindows.isEmpty()
+                    ? List.of()
+                    : availabilityIndex.findBooked(resource.getId(),
+                            rangeStart.minusSeconds(cooldown), rangeEnd.plusSeconds(cooldown));
+            sweep(openWindows, booked, cooldown, step, minLength, slots);
+        }
+
+        return new ResourceAvailabilityDto(
+                resource.getId(),
+                resource.getName(),
+                resource.getResourceType(),
+                resource.getLocation(),
+                slotMinutes,
+                slots);
+    }
+
+    /**
+     * Opening windows and bookings are both ordered by start, so free time
+     * falls out of one merge; the booking cursor never moves backwards past
+     * intervals that ended before the current window.
+     */
+    private static void sweep(List<long[]> openWindows, List<IntervalTree.Interval> booked, long cooldown, long step,
+            long minLength, List<AvailableSlotDto> slots) {
+        int first = 0;
+        for (long[] window : openWindows) {
+            long windowStart = window[0];
+            long windowEnd = window[1];
+            long gridOrigin = window[2];
+            long cursor = windowStart;
+
+            while (first < booked.size() && booked.get(first).end() + cooldown <= cursor) {
+                first++;
+            }
+
+            for (int i = first; i < booked.size() && booked.get(i).start() - cooldown < windowEnd; i++) {
+                long blockedStart = booked.get(i).start() - cooldown;
+                long blockedEnd = booked.get(i).end() + cooldown;
+                if (blockedStart > cursor) {
+                    addSlot(cursor, blockedStart, gridOrigin, step, minLength, slots);
+                }
+                cursor = Math.max(cursor, blockedEnd);
+            }
+
+            if (cursor < windowEnd) {
+                addSlot(cursor, windowEnd, gridOrigin, step, minLength, slots);
+            }
+        }
+    }
+
+    // Wyrównanie do siatki reservationInterval liczonej od godziny otwarcia
+    private static void addSlot(long start, long end, long gridOrigin, long step, long minLength,
+            List<AvailableSlotDto> slots) {
+        long alignedStart = gridOrigin + Math.floorDiv(start - gridOrigin + step - 1, step) * step;
+        long alignedEnd = gridOrigin + Math.floorDiv(end - gridOrigin, step) * step;
+        if (alignedEnd - alignedStart >= minLength) {
+            slots.add(new AvailableSlotDto(toTime(alignedStart), toTime(alignedEnd)));
+        }
+    }
+
+    /**
+     * Daily opening hours clipped to [rangeStart, rangeEnd) as {start, end,
+     * gridOrigin}, ordered by start. availableTo at or before availableFrom
+     * means the resource is open past midnight.
+     */
+    private static List<long[]> openingWindows(ReservableResource resource, LocalDateTime rangeStart,
+            LocalDateTime rangeEnd) {
+        LocalTime opens = resource.getAvailableFrom() != null ? resource.getAvailableFrom() : LocalTime.MIDNIGHT;
+        LocalTime closes = resource.getAvailableTo() != null ? resource.getAvailableTo() : LocalTime.MIDNIGHT;
+        Set<DayOfWeek> days = parseDays(resource.getAvailableDays());
+
+        long lower = ReservationAvailabilityIndex.toKey(rangeStart);
+        long upper = ReservationAvailabilityIndex.toKey(rangeEnd);
+
+        List<long[]> windows = new ArrayList<>();
+        // Od dnia wcześniej - okno sprzed północy może sięgać w zakres
+        for (LocalDate day = rangeStart.toLocalDate().minusDays(1); !day.atStartOfDay().isAfter(rangeEnd); day = day.plusDays(1)) {
+            if (!days.contains(day.getDayOfWeek())) {
+                continue;
+            }
+            LocalDateTime open = day.atTime(opens);
+            LocalDateTime close = closes.isAfter(opens) ? day.atTime(closes) : day.plusDays(1).atTime(closes);
+
+            long start = Math.max(ReservationAvailabilityIndex.toKey(open), lower);
+            long end = Math.min(ReservationAvailabilityIndex.toKey(close), upper);
+            if (start < end) {
+                windows.add(new long[] { start, end, ReservationAvailabilityIndex.toKey(open) });
+            }
+        }
+        return windows;
+    }
+
+    private static Set<DayOfWeek> parseDays(String availableDays) {
+        if (availableDays == null || availableDays.isBlank()) {
+            return EnumSet.allOf(DayOfWeek.class);
+        }
+        Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+        for (String day : availableDays.split(",")) {
+            if (!day.isBlank()) {
+                days.add(DayOfWeek.valueOf(day.trim().toUpperCase()));
+            }
+        }
+        return days;
+    }
+
+    private static void validateRange(LocalDateTime from, LocalDateTime to) {
+        if (from == null || to == null || !to.isAfter(from)) {
+            throw new IllegalArgumentException("'to' must be after 'from'");
+        }
+    }
+
+    private static int positiveOr(Integer value, int fallback) {
+        return value != null && value > 0 ? value : fallback;
+    }
+
+    private static LocalDateTime toTime(long key) {
+        return LocalDateTime.ofEpochSecond(key, 0, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,196 @@
+package com.dorm.manag.service;
+
+import com.dorm.manag.entity.ReservableResource;
+import com.dorm.manag.entity.ReservationStatus;
+import com.dorm.manag.entity.User;
+import com.dorm.manag.repository.ReservableResourceRepository;
+import com.dorm.manag.repository.ReservationRepository;
+import com.dorm.manag.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.security.SecureRandom;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * iCalendar (.ics) feeds of a user's own reservations and of a resource's
+ * bookings. Calendar clients cannot send a JWT, so feeds are addressed by a
+ * per-user secret token. The feed version (ETag / Last-Modified) comes from
+ * one aggregate query, so a poll that ends in 304 never reads the events;
+ * the events themselves are streamed from a database cursor into the
+ * response.
+ */
+@Service
+public class CalendarFeedService {
+
+    private static final String PRODUCT_ID = "-//Dormitory Manager//Reservations//EN";
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final ReservationRepository reservationRepository;
+    private final ReservableResourceRepository resourceRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    @Value("${app.calendar.past-days:30}")
+    private long pastDays;
+
+    @Value("${app.calendar.future-days:180}")
+    private long futureDays;
+
+    @Value("${app.calendar.refresh-interval:PT1H}")
+    private String refreshInterval;
+
+    @Value("${app.calendar.uid-domain:dormitory-manager}")
+    private String uidDomain;
+
+    /**
+     * Validator pair for conditional requests
+     */
+    public record FeedVersion(String etag, long lastModified) {
+    }
+
+    public CalendarFeedService(ReservationRepository reservationRepository,
+            ReservableResourceRepository resourceRepository,
+            UserRepository userRepository,
+            PlatformTransactionManager transactionManager) {
+        this.reservationRepository = reservationRepository;
+        this.resourceRepository = resourceRepository;
+        this.userRepository = userRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @Transactional
+    public String getOrCreateFeedToken(User user) {
+        if (user.getCalendarToken() != null) {
+            return user.getCalendarToken();
+        }
+        return resetFeedToken(user);
+    }
+
+    /**
+     * Issues a new token; the old feed URLs stop working
+     */
+    @Transactional
+    public String resetFeedToken(User user) {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        user.setCalendarToken(Base64.getUrlEncoder().withoutPadding().encodeToString(bytes));
+        userRepository.save(user);
+        return user.getCalendarToken();
+    }
+
+    public Optional<Long> findUserIdByFeedToken(String token) {
+        if (token == null || token.isBlank()) {
+            return Optional.empty();
+        }
+        return userRepository.findActiveIdByCalendarToken(token);
+    }
+
+    public Optional<ReservableResource> findResource(Long resourceId) {
+        return resourceRepository.findById(resourceId);
+    }
+
+    public FeedVersion getUserFeedVersion(Long userId) {
+        LocalDate today = LocalDate.now();
+        List<Object[]> rows = reservationRepository.findUserFeedVersion(userId, windowStart(today), windowEnd(today));
+        return version("u" + userId, today, rows.get(0), null);
+    }
+
+    public FeedVersion getResourceFeedVersion(ReservableResource resource) {
+        LocalDate today = LocalDate.now();
+        List<Object[]> rows = reservationRepository.findResourceFeedVersion(resource.getId(), windowStart(today),
+                windowEnd(today));
+        // Zmiana nazwy/lokalizacji zasobu też zmienia treść feedu
+        return version("r" + resource.getId(), today, rows.get(0), resource.getUpdatedAt());
+    }
+
+    public void writeUserFeed(Long userId, OutputStream out) throws IOException {
+        LocalDate today = LocalDate.now();
+        write(out, "My reservations", calendar -> {
+            try (Stream<Object[]> rows = reservationRepository.streamUserFeed(userId, windowStart(today),
+                    windowEnd(today))) {
+                rows.forEach(row -> writeEvent(calendar, row, (String) row[5], (String) row[6], (String) row[7]));
+            }
+        });
+    }
+
+    public void writeResourceFeed(ReservableResource resource, OutputStream out) throws IOException {
+        LocalDate today = LocalDate.now();
+        String summary = "Reserved - " + resource.getName();
+        write(out, resource.getName(), calendar -> {
+            try (Stream<Object[]> rows = reservationRepository.streamResourceFeed(resource.getId(),
+                    windowStart(today), windowEnd(today))) {
+                rows.forEach(row -> writeEvent(calendar, row, summary, resource.getLocation(), null));
+            }
+        });
+    }
+
+    private void write(OutputStream out, String calendarName, Consumer<ICalendarWriter> events) throws IOException {
+        ICalendarWriter calendar = new ICalendarWriter(out, ZoneId.systemDefault());
+        calendar.beginCalendar(PRODUCT_ID, calendarName, refreshInterval);
+        try {
+            // Kursor wymaga transakcji (auto-commit wyłączony); wiersze to projekcje, kontekst nie rośnie
+            readOnlyTransaction.executeWithoutResult(status -> events.accept(calendar));
+        } catch (UncheckedIOException e) {
+            // Zwykle klient rozłączył się w trakcie
+            throw e.getCause();
+        }
+        calendar.endCalendar();
+    }
+
+    private void writeEvent(ICalendarWriter calendar, Object[] row, String summary, String location,
+            String description) {
+        Long id = (Long) row[0];
+        LocalDateTime start = (LocalDateTime) row[1];
+        LocalDateTime end = (LocalDateTime) row[2];
+        ReservationStatus status = (ReservationStatus) row[3];
+        LocalDateTime updatedAt = row[4] != null ? (LocalDateTime) row[4] : start;
+        try {
+            calendar.event("reservation-" + id + "@" + uidDomain, updatedAt, start, end, summary, location,
+                    description, status == ReservationStatus.PENDING ? "TENTATIVE" : "CONFIRMED");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private FeedVersion version(String prefix, LocalDate today, Object[] aggregate, LocalDateTime alsoModified) {
+        long count = ((Number) aggregate[0]).longValue();
+        long lastModified = toMillis(today.atStartOfDay());
+        if (aggregate[1] != null) {
+            lastModified = Math.max(lastModified, toMillis((LocalDateTime) aggregate[1]));
+        }
+        if (alsoModified != null) {
+            lastModified = Math.max(lastModified, toMillis(alsoModified));
+        }
+        // Okno przesuwa się codziennie, więc dzień też wchodzi do ETag
+        String etag = "\"" + prefix + "-" + today.toEpochDay() + "-" + count + "-"
+                + Long.toHexString(lastModified) + "\"";
+        return new FeedVersion(etag, lastModified);
+    }
+
+    private LocalDateTime windowStart(LocalDate today) {
+        return today.minusDays(pastDays).atStartOfDay();
+    }
+
+    private LocalDateTime windowEnd(LocalDate today) {
+        return today.plusDays(futureDays + 1).atStartOfDay();
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
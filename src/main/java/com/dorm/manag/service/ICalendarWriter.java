@@ -0,0 +1,105 @@
+package com.dorm.manag.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Minimal RFC 5545 writer: CRLF line endings, text escaping and folding of
+ * content lines longer than 75 octets. Times are written in UTC, so no
+ * VTIMEZONE is needed. Events are written as they come and nothing is kept in
+ * memory besides the output buffer.
+ */
+final class ICalendarWriter {
+
+    private static final DateTimeFormatter UTC_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'");
+    private static final int MAX_LINE_OCTETS = 75;
+
+    private final Writer writer;
+    private final ZoneId zone;
+
+    ICalendarWriter(OutputStream out, ZoneId zone) {
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 8192);
+        this.zone = zone;
+    }
+
+    void beginCalendar(String productId, String name, String refreshInterval) throws IOException {
+        line("BEGIN:VCALENDAR");
+        line("VERSION:2.0");
+        line("PRODID:" + productId);
+        line("CALSCALE:GREGORIAN");
+        line("METHOD:PUBLISH");
+        line("X-WR-CALNAME:" + escape(name));
+        line("REFRESH-INTERVAL;VALUE=DURATION:" + refreshInterval);
+        line("X-PUBLISHED-TTL:" + refreshInterval);
+    }
+
+    void event(String uid, LocalDateTime stamp, LocalDateTime start, LocalDateTime end, String summary,
+            String location, String description, String status) throws IOException {
+        line("BEGIN:VEVENT");
+        line("UID:" + uid);
+        line("DTSTAMP:" + utc(stamp));
+        line("DTSTART:" + utc(start));
+        line("DTEND:" + utc(end));
+        line("SUMMARY:" + escape(summary));
+        if (location != null && !location.isBlank()) {
+            line("LOCATION:" + escape(location));
+        }
+        if (description != null && !description.isBlank()) {
+            line("DESCRIPTION:" + escape(description));
+        }
+        line("STATUS:" + status);
+        line("END:VEVENT");
+    }
+
+    void endCalendar() throws IOException {
+        line("END:VCALENDAR");
+        writer.flush();
+    }
+
+    private String utc(LocalDateTime time) {
+        return time.atZone(zone).withZoneSameInstant(ZoneOffset.UTC).format(UTC_FORMAT);
+    }
+
+    private void line(String content) throws IOException {
+        // Zawijanie po 75 oktetach UTF-8, bez rozcinania znaków wielobajtowych
+        int octets = 0;
+        for (int i = 0; i < content.length();) {
+            int codePoint = content.codePointAt(i);
+            int size = codePoint < 0x80 ? 1 : codePoint < 0x800 ? 2 : codePoint < 0x10000 ? 3 : 4;
+            if (octets + size > MAX_LINE_OCTETS) {
+                writer.write("\r\n ");
+                octets = 1;
+            }
+            writer.write(content, i, Character.charCount(codePoint));
+            octets += size;
+            i += Character.charCount(codePoint);
+        }
+        writer.write("\r\n");
+    }
+
+    private static String escape(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder escaped = new StringBuilder(text.length() + 8);
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '\\', ';', ',' -> escaped.append('\\').append(c);
+                case '\n' -> escaped.append("\\n");
+                case '\r' -> {
+                }
+                default -> escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+}
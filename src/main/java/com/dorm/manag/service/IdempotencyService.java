@@ -0,0 +1,149 @@
+package com.dorm.manag.service;
+
+import com.dorm.manag.config.IdempotencyProperties;
+import com.dorm.manag.entity.IdempotencyRecord;
+import com.dorm.manag.exception.ServiceOverloadedException;
+import com.dorm.manag.repository.IdempotencyRecordRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Store behind the Idempotency-Key header. A key is claimed by inserting an
+ * unfinished record (the unique constraint settles races between nodes) and
+ * completed with the response once the request is done. On one node,
+ * duplicates arriving while the first request runs wait on a lock of their
+ * key and then get the stored response instead of a 409.
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    private final IdempotencyRecordRepository repository;
+    private final TransactionOperations transactionOperations;
+    private final IdempotencyProperties properties;
+    private final ConcurrentHashMap<String, KeyLock> keyLocks = new ConcurrentHashMap<>();
+
+    public IdempotencyService(IdempotencyRecordRepository repository,
+            TransactionOperations transactionOperations,
+            IdempotencyProperties properties) {
+        this.repository = repository;
+        this.transactionOperations = transactionOperations;
+        this.properties = properties;
+    }
+
+    /**
+     * Locks the key; the caller unlocks it. Only requests with the same key
+     * wait for each other.
+     */
+    public Lock lock(String scope, String key) {
+        String id = scope + '\u0000' + key;
+        // Licznik trzymających/czekających zmieniany tylko w compute - wpis znika razem z ostatnim
+        KeyLock lock = keyLocks.compute(id, (k, existing) -> {
+            KeyLock keyLock = existing != null ? existing : new KeyLock(id);
+            keyLock.users++;
+            return keyLock;
+        });
+        try {
+            if (!lock.tryLock(properties.getLockWaitTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                lock.leave();
+                throw new ServiceOverloadedException("A request with this Idempotency-Key is still being processed", 1);
+            }
+        } catch (InterruptedException e) {
+            lock.leave();
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for idempotency lock", e);
+        }
+        return lock;
+    }
+
+    public Optional<IdempotencyRecord> findLive(String scope, String key) {
+        return repository.findByScopeAndIdempotencyKey(scope, key)
+                .filter(record -> record.getExpiresAt().isAfter(LocalDateTime.now()));
+    }
+
+    /**
+     * Claims the key for a new request.
+     *
+     * @return empty when the key is already claimed (another node got there
+     *         first)
+     */
+    public Optional<IdempotencyRecord> begin(String scope, String key, String requestHash) {
+        try {
+            return Optional.ofNullable(transactionOperations.execute(status -> {
+                // Wygasły rekord jeszcze przed eviction - klucz wolny do ponownego użycia
+                repository.findByScopeAndIdempotencyKey(scope, key)
+                        .filter(existing -> !existing.getExpiresAt().isAfter(LocalDateTime.now()))
+                        .ifPresent(existing -> {
+                            repository.delete(existing);
+                            repository.flush();
+                        });
+
+                IdempotencyRecord record = new IdempotencyRecord();
+                record.setScope(scope);
+                record.setIdempotencyKey(key);
+                record.setRequestHash(requestHash);
+                record.setExpiresAt(LocalDateTime.now().plus(properties.getTtl()));
+                return repository.saveAndFlush(record);
+            }));
+        } catch (DataIntegrityViolationException e) {
+            return Optional.empty();
+        }
+    }
+
+    public void complete(Long id, int status, String contentType, String body) {
+        transactionOperations.executeWithoutResult(tx -> repository.complete(id, status, contentType, body));
+    }
+
+    /**
+     * Frees the key after a failed request, so a retry runs it again
+     */
+    public void release(Long id) {
+        try {
+            transactionOperations.executeWithoutResult(tx -> repository.deleteById(id));
+        } catch (RuntimeException e) {
+            // Rekord i tak wygaśnie po ttl
+            log.warn("Failed to release idempotency key {}: {}", id, e.getMessage());
+        }
+    }
+
+    @Scheduled(cron = "${app.idempotency.evict-cron:0 */10 * * * *}")
+    public void evictExpired() {
+        Integer deleted = transactionOperations.execute(status -> repository.deleteExpired(LocalDateTime.now()));
+        if (deleted != null && deleted > 0) {
+            log.debug("Evicted {} expired idempotency keys", deleted);
+        }
+    }
+
+    /**
+     * Lock of one key, dropped from the map when nobody holds or waits for it
+     */
+    private final class KeyLock extends ReentrantLock {
+
+        private final String id;
+        private int users;
+
+        KeyLock(String id) {
+            this.id = id;
+        }
+
+        @Override
+        public void unlock() {
+            super.unlock();
+            leave();
+        }
+
+        private void leave() {
+            keyLocks.computeIfPresent(id, (k, lock) -> --lock.users == 0 ? null : lock);
+        }
+    }
+}
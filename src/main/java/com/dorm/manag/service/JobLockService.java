@@ -0,0 +1,100 @@
+package com.dorm.manag.service;
+
+import com.dorm.manag.repository.JobLockRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.util.StringUtils;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Database-backed leases for scheduled jobs, so that with several nodes each
+ * job runs on one of them at a time. Leases expire on their own; the lease
+ * time has to be longer than one run of the job.
+ */
+@Slf4j
+@Service
+public class JobLockService {
+
+    private final JobLockRepository jobLockRepository;
+    private final TransactionOperations transactionOperations;
+    private final String nodeId;
+
+    public JobLockService(JobLockRepository jobLockRepository,
+            TransactionOperations transactionOperations,
+            @Value("${app.jobs.node-id:}") String nodeId) {
+        this.jobLockRepository = jobLockRepository;
+        this.transactionOperations = transactionOperations;
+        this.nodeId = StringUtils.hasText(nodeId) ? nodeId : defaultNodeId();
+    }
+
+    /**
+     * Runs the job if this node gets (or already holds) the lease.
+     *
+     * @return false when another node holds the lease
+     */
+    public boolean runExclusively(String jobName, Duration leaseTime, Runnable job) {
+        if (!tryAcquire(jobName, leaseTime)) {
+            log.debug("Job {} skipped, lease held by another node", jobName);
+            return false;
+        }
+        try {
+            job.run();
+            return true;
+        } finally {
+            release(jobName);
+        }
+    }
+
+    public boolean tryAcquire(String jobName, Duration leaseTime) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime until = now.plus(leaseTime);
+        try {
+            Integer updated = transactionOperations.execute(
+                    status -> jobLockRepository.tryAcquire(jobName, nodeId, now, until));
+            if (updated != null && updated > 0) {
+                return true;
+            }
+            if (jobLockRepository.existsById(jobName)) {
+                return false;
+            }
+            // Pierwsze uruchomienie joba - wiersza jeszcze nie ma
+            transactionOperations.executeWithoutResult(
+                    status -> jobLockRepository.insert(jobName, nodeId, now, until));
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            // Inny węzeł wstawił wiersz pierwszy
+            return false;
+        }
+    }
+
+    public void release(String jobName) {
+        try {
+            transactionOperations.executeWithoutResult(
+                    status -> jobLockRepository.release(jobName, nodeId, LocalDateTime.now()));
+        } catch (RuntimeException e) {
+            // Dzierżawa i tak wygaśnie
+            log.warn("Failed to release job lock {}: {}", jobName, e.getMessage());
+        }
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "unknown";
+        }
+        return host + ":" + ProcessHandle.current().pid();
+    }
+}
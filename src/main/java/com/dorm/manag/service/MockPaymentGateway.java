@@ -0,0 +1,94 @@
+package com.dorm.manag.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Local stand-in for a payment provider (external.payment.provider=mock).
+ * A charge is accepted immediately and settles processing-ms later with the
+ * configured success rate; state lives in memory only. Webhook payloads are
+ * signed with HMAC-SHA256 (hex) over the raw body.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "external.payment", name = "provider", havingValue = "mock", matchIfMissing = true)
+public class MockPaymentGateway implements PaymentGateway {
+
+    private record Charge(String externalPaymentId, long settlesAt, boolean success) {
+    }
+
+    private final Map<String, Charge> chargesByKey = new ConcurrentHashMap<>();
+    private final Map<String, Charge> chargesById = new ConcurrentHashMap<>();
+
+    private final long processingMs;
+    private final double successRate;
+    private final byte[] webhookSecret;
+
+    public MockPaymentGateway(@Value("${external.payment.mock.processing-ms:1000}") long processingMs,
+            @Value("${external.payment.mock.success-rate:0.9}") double successRate,
+            @Value("${external.payment.webhook-secret:}") String webhookSecret) {
+        this.processingMs = processingMs;
+        this.successRate = successRate;
+        this.webhookSecret = webhookSecret.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public GatewayStatus submit(ChargeRequest request) {
+        // Ten sam klucz idempotencji - ta sama płatność, bez drugiego obciążenia
+        Charge charge = chargesByKey.computeIfAbsent(request.idempotencyKey(), key -> {
+            Charge created = new Charge("PAY-" + UUID.randomUUID().toString().substring(0, 12).toUpperCase(),
+                    System.currentTimeMillis() + processingMs,
+                    ThreadLocalRandom.current().nextDouble() < successRate);
+            chargesById.put(created.externalPaymentId(), created);
+            return created;
+        });
+        log.debug("Mock gateway accepted {} as {}", request.idempotencyKey(), charge.externalPaymentId());
+        return status(charge);
+    }
+
+    @Override
+    public GatewayStatus getStatus(String externalPaymentId) {
+        Charge charge = chargesById.get(externalPaymentId);
+        if (charge == null) {
+            return new GatewayStatus(externalPaymentId, State.UNKNOWN, "Payment not found at gateway");
+        }
+        return status(charge);
+    }
+
+    @Override
+    public boolean verifyWebhookSignature(String payload, String signature) {
+        if (webhookSecret.length == 0 || signature == null) {
+            return false;
+        }
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(webhookSecret, "HmacSHA256"));
+            byte[] expected = mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
+            return MessageDigest.isEqual(expected, HexFormat.of().parseHex(signature));
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private GatewayStatus status(Charge charge) {
+        if (System.currentTimeMillis() < charge.settlesAt()) {
+            return new GatewayStatus(charge.externalPaymentId(), State.PENDING, null);
+        }
+        return charge.success()
+                ? new GatewayStatus(charge.externalPaymentId(), State.SUCCEEDED, null)
+                : new GatewayStatus(charge.externalPaymentId(), State.DECLINED, "Payment declined by bank");
+    }
+}
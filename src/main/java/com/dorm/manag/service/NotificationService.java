@@ -75,6 +75,26 @@ public class NotificationService {
         sendPushNotification(user, title, message, NotificationType.RESERVATION);
     }
 
+    public void notifyReservationReminder(User user, String resourceName, String dateTime) {
+        String title = "Reservation Reminder";
+        String message = String.format("Your reservation for %s starts at %s", resourceName, dateTime);
+
+        sendPushNotification(user, title, message, NotificationType.RESERVATION);
+    }
+
+    public void notifyWaitlistPromoted(User user, String resourceName, String dateTime) {
+        String title = "Waitlist Slot Available";
+        String message = String.format("A slot for %s on %s became free and is now reserved for you",
+                resourceName, dateTime);
+
+        sendPushNotification(user, title, message, NotificationType.RESERVATION);
+        sendEmailNotification(user, title,
+                String.format(
+                        "Dear %s,\n\nThe slot you were waiting for (%s, %s) became free and has been reserved for you. " +
+                                "Please cancel it if you no longer need it.\n\nBest regards,\nDormitory Management",
+                        user.getFirstName(), resourceName, dateTime));
+    }
+
     public void notifyKeyPickupReady(User user, String keyType, String location) {
         String title = "Key Ready for Pickup";
         String message = String.format("Your %s is ready for pickup at %s", keyType, location);
@@ -0,0 +1,34 @@
+package com.dorm.manag.service;
+
+import com.dorm.manag.entity.PaymentMethod;
+
+import java.math.BigDecimal;
+
+/**
+ * Payment provider integration. Calls are made outside of any transaction and
+ * may take as long as the provider needs; the outcome arrives either from
+ * {@link #getStatus} polling or through the webhook.
+ */
+public interface PaymentGateway {
+
+    enum State {
+        PENDING, SUCCEEDED, DECLINED, UNKNOWN
+    }
+
+    /**
+     * @param idempotencyKey the internal transaction id - submitting it again
+     *                       must not charge twice
+     */
+    record ChargeRequest(String idempotencyKey, BigDecimal amount, String currency, PaymentMethod method,
+            String description) {
+    }
+
+    record GatewayStatus(String externalPaymentId, State state, String failureReason) {
+    }
+
+    GatewayStatus submit(ChargeRequest request);
+
+    GatewayStatus getStatus(String externalPaymentId);
+
+    boolean verifyWebhookSignature(String payload, String signature);
+}
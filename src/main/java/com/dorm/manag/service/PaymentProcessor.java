@@ -0,0 +1,243 @@
+package com.dorm.manag.service;
+
+import com.dorm.manag.entity.Payment;
+import com.dorm.manag.entity.PaymentStatus;
+import com.dorm.manag.event.PaymentCompletedEvent;
+import com.dorm.manag.repository.PaymentRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Drives payments through PROCESSING -> COMPLETED / FAILED. The gateway is
+ * only ever called outside a transaction; every state change is a short
+ * conditional UPDATE of its own, so the poller, the webhook and a retried
+ * submission can race without double transitions.
+ * <ul>
+ * <li>submission runs on the application task executor right after the
+ * payment moved to PROCESSING</li>
+ * <li>the poller asks the gateway about payments still waiting for a result
+ * and re-submits the ones that never reached it (restart, full queue)</li>
+ * <li>the webhook applies results pushed by the gateway</li>
+ * </ul>
+ * A charge the gateway does not know (UNKNOWN, e.g. after it lost its state)
+ * is not a decline: the payment stays PROCESSING without its external id and
+ * is re-submitted under the same idempotency key.
+ */
+@Slf4j
+@Component
+public class PaymentProcessor {
+
+    static final String JOB_NAME = "payment-poller";
+
+    private final PaymentRepository paymentRepository;
+    private final PaymentGateway paymentGateway;
+    private final TransactionOperations transactionOperations;
+    private final AsyncTaskExecutor taskExecutor;
+    private final JobLockService jobLockService;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Counter completedCounter;
+    private final Counter failedCounter;
+    private final Counter unknownCounter;
+
+    @Value("${app.payments.processing.resubmit-after-seconds:60}")
+    private long resubmitAfterSeconds;
+
+    @Value("${app.payments.processing.poll-batch-size:100}")
+    private int pollBatchSize;
+
+    @Value("${app.payments.processing.lease-seconds:120}")
+    private long leaseSeconds;
+
+    public PaymentProcessor(PaymentRepository paymentRepository,
+            PaymentGateway paymentGateway,
+            TransactionOperations transactionOperations,
+            @Qualifier("applicationTaskExecutor") AsyncTaskExecutor taskExecutor,
+            JobLockService jobLockService,
+            ObjectMapper objectMapper,
+            ApplicationEventPublisher eventPublisher,
+            MeterRegistry meterRegistry) {
+        this.paymentRepository = paymentRepository;
+        this.paymentGateway = paymentGateway;
+        this.transactionOperations = transactionOperations;
+        this.taskExecutor = taskExecutor;
+        this.jobLockService = jobLockService;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+
+        this.completedCounter = outcomeCounter(meterRegistry, "completed");
+        this.failedCounter = outcomeCounter(meterRegistry, "failed");
+        this.unknownCounter = Counter.builder("payments.gateway.unknown")
+                .description("Charges the gateway did not recognise, queued for re-submission")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues submission of a payment that is already PROCESSING. Call after
+     * the transition has committed.
+     */
+    public void enqueue(Long paymentId) {
+        try {
+            taskExecutor.execute(() -> submit(paymentId));
+        } catch (TaskRejectedException e) {
+            // Kolejka pełna - poller wyśle płatność po resubmit-after-seconds
+            log.warn("Payment {} not queued ({}), the poller will submit it", paymentId, e.getMessage());
+        }
+    }
+
+    void submit(Long paymentId) {
+        PaymentGateway.ChargeRequest request = transactionOperations.execute(status -> paymentRepository
+                .findById(paymentId)
+                .filter(payment -> payment.getStatus() == PaymentStatus.PROCESSING
+                        && payment.getExternalPaymentId() == null)
+                .map(PaymentProcessor::chargeRequest)
+                .orElse(null));
+        if (request == null) {
+            return;
+        }
+
+        PaymentGateway.GatewayStatus result;
+        try {
+            result = paymentGateway.submit(request);
+        } catch (RuntimeException e) {
+            // Bez zmiany stanu - ponowienie z tym samym kluczem idempotencji przy następnym przebiegu pollera
+            log.warn("Gateway submission of payment {} failed: {}", paymentId, e.getMessage());
+            return;
+        }
+
+        transactionOperations.executeWithoutResult(status -> paymentRepository.attachExternalPaymentId(
+                paymentId, result.externalPaymentId(), LocalDateTime.now()));
+        apply(paymentId, result);
+    }
+
+    @Scheduled(fixedDelayString = "${app.payments.processing.poll-interval-ms:2000}",
+            initialDelayString = "${app.payments.processing.initial-delay-ms:10000}")
+    public void poll() {
+        jobLockService.runExclusively(JOB_NAME, Duration.ofSeconds(leaseSeconds), this::pollOnce);
+    }
+
+    void pollOnce() {
+        PageRequest batch = PageRequest.of(0, pollBatchSize);
+
+        List<Long> stalled = paymentRepository.findStalledSubmissions(
+                LocalDateTime.now().minusSeconds(resubmitAfterSeconds), batch);
+        if (!stalled.isEmpty()) {
+            log.info("Re-submitting {} payments that never reached the gateway", stalled.size());
+            stalled.forEach(this::submit);
+        }
+
+        for (Object[] row : paymentRepository.findAwaitingGateway(batch)) {
+            Long paymentId = (Long) row[0];
+            try {
+                apply(paymentId, paymentGateway.getStatus((String) row[1]));
+            } catch (RuntimeException e) {
+                log.warn("Gateway status check of payment {} failed: {}", paymentId, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Applies a gateway callback. The payload is the raw request body:
+     * {"externalPaymentId": "...", "status": "SUCCEEDED|DECLINED|PENDING", "failureReason": "..."}
+     *
+     * @return false when the payment is not known
+     */
+    public boolean handleWebhook(String payload, String signature) {
+        if (!paymentGateway.verifyWebhookSignature(payload, signature)) {
+            throw new SecurityException("Invalid webhook signature");
+        }
+
+        JsonNode body;
+        try {
+            body = objectMapper.readTree(payload);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Malformed webhook payload");
+        }
+        String externalPaymentId = body.path("externalPaymentId").asText(null);
+        PaymentGateway.State state;
+        try {
+            state = PaymentGateway.State.valueOf(body.path("status").asText(""));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown webhook status: " + body.path("status").asText());
+        }
+        if (externalPaymentId == null) {
+            throw new IllegalArgumentException("Webhook without externalPaymentId");
+        }
+
+        Long paymentId = paymentRepository.findIdByExternalPaymentId(externalPaymentId).orElse(null);
+        if (paymentId == null) {
+            return false;
+        }
+        apply(paymentId, new PaymentGateway.GatewayStatus(externalPaymentId, state,
+                body.path("failureReason").asText(null)));
+        return true;
+    }
+
+    private void apply(Long paymentId, PaymentGateway.GatewayStatus result) {
+        LocalDateTime now = LocalDateTime.now();
+        Integer updated = switch (result.state()) {
+            case PENDING -> 0;
+            case SUCCEEDED -> transactionOperations.execute(status -> {
+                int completed = paymentRepository.markCompleted(paymentId, "/api/payments/" + paymentId + "/receipt",
+                        now);
+                if (completed > 0) {
+                    eventPublisher.publishEvent(new PaymentCompletedEvent(paymentId));
+                }
+                return completed;
+            });
+            case DECLINED -> transactionOperations.execute(status -> paymentRepository.markFailed(
+                    paymentId, result.failureReason() != null ? result.failureReason() : "Payment failed", now));
+            case UNKNOWN -> {
+                Integer detached = transactionOperations.execute(status -> paymentRepository
+                        .detachExternalPaymentId(paymentId, result.externalPaymentId(), now));
+                if (detached != null && detached > 0) {
+                    unknownCounter.increment();
+                    log.warn("Gateway does not know payment {} ({}), it will be re-submitted",
+                            paymentId, result.externalPaymentId());
+                }
+                yield 0;
+            }
+        };
+
+        // 0 = już rozstrzygnięta przez inną ścieżkę (webhook / poller)
+        if (updated != null && updated > 0) {
+            if (result.state() == PaymentGateway.State.SUCCEEDED) {
+                completedCounter.increment();
+                log.info("Payment completed: {}", paymentId);
+            } else {
+                failedCounter.increment();
+                log.warn("Payment failed: {} - {}", paymentId, result.failureReason());
+            }
+        }
+    }
+
+    private static PaymentGateway.ChargeRequest chargeRequest(Payment payment) {
+        return new PaymentGateway.ChargeRequest(payment.getTransactionId(), payment.getAmount(),
+                payment.getCurrency(), payment.getPaymentMethod(), payment.getDescription());
+    }
+
+    private static Counter outcomeCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("payments.processed")
+                .description("Payments settled by the gateway")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -5,14 +5,17 @@ import com.dorm.manag.dto.PaymentDto;
 import com.dorm.manag.entity.Payment;
 import com.dorm.manag.entity.PaymentStatus;
 import com.dorm.manag.entity.User;
+import com.dorm.manag.event.PaymentCompletedEvent;
 import com.dorm.manag.repository.PaymentRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -27,7 +30,9 @@ import java.util.stream.Collectors;
 public class PaymentService {
 
     private final PaymentRepository paymentRepository;
-    private final PdfService pdfService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PaymentProcessor paymentProcessor;
+    private final TransactionOperations transactionOperations;
 
     @Transactional
     public PaymentDto createPayment(CreatePaymentRequest request, User user) {
@@ -59,38 +64,26 @@ public class PaymentService {
         return convertToDto(savedPayment);
     }
 
-    @Transactional
+    /**
+     * Moves a PENDING payment to PROCESSING and queues it for the gateway. The
+     * outcome is applied later by PaymentProcessor; clients poll the payment
+     * until it is COMPLETED or FAILED.
+     */
     public PaymentDto processPayment(Long paymentId) {
         log.info("Processing payment: {}", paymentId);
 
-        Payment payment = paymentRepository.findById(paymentId)
-                .orElseThrow(() -> new RuntimeException("Payment not found with id: " + paymentId));
-
-        if (!payment.isPending()) {
-            throw new RuntimeException("Payment is not in pending status");
-        }
-
-        // Update status to processing
-        payment.setStatus(PaymentStatus.PROCESSING);
-        paymentRepository.save(payment);
-
-        // Simulate payment processing (in real app, integrate with payment gateway)
-        try {
-            // Simulate external payment processing
-            Thread.sleep(1000); // Simulate processing time
-
-            // For demo purposes, randomly succeed or fail (90% success rate)
-            boolean success = Math.random() > 0.1;
-
-            if (success) {
-                return completePayment(payment);
-            } else {
-                return failPayment(payment, "Payment declined by bank");
+        // Krótka transakcja tylko na przejście stanu - połączenie nie czeka na bramkę
+        PaymentDto payment = transactionOperations.execute(status -> {
+            if (paymentRepository.markProcessing(paymentId, LocalDateTime.now()) == 0) {
+                Payment existing = paymentRepository.findById(paymentId)
+                        .orElseThrow(() -> new RuntimeException("Payment not found with id: " + paymentId));
+                throw new RuntimeException("Payment is not in pending status: " + existing.getStatus());
             }
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            return failPayment(payment, "Processing interrupted");
-        }
+            return paymentRepository.findById(paymentId).map(this::convertToDto).orElseThrow();
+        });
+
+        paymentProcessor.enqueue(paymentId);
+        return payment;
     }
 
     @Transactional
@@ -100,12 +93,8 @@ public class PaymentService {
 
         Payment completedPayment = paymentRepository.save(payment);
 
-        // Generate PDF receipt asynchronously
-        try {
-            generatePaymentReceipt(completedPayment);
-        } catch (Exception e) {
-            log.error("Failed to generate receipt for payment {}: {}", payment.getId(), e.getMessage());
-        }
+        // Pokwitowanie renderuje ReceiptService po commicie
+        eventPublisher.publishEvent(new PaymentCompletedEvent(completedPayment.getId()));
 
         log.info("Payment completed: {}", completedPayment.getId());
         return convertToDto(completedPayment);
@@ -137,6 +126,7 @@ public class PaymentService {
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public Optional<PaymentDto> getPaymentById(Long id) {
         return paymentRepository.findById(id)
                 .map(this::convertToDto);
@@ -168,7 +158,7 @@ public class PaymentService {
 
         if (newStatus == PaymentStatus.COMPLETED && oldStatus != PaymentStatus.COMPLETED) {
             payment.setCompletedAt(LocalDateTime.now());
-            generatePaymentReceipt(payment);
+            eventPublisher.publishEvent(new PaymentCompletedEvent(payment.getId()));
         }
 
         Payment updatedPayment = paymentRepository.save(payment);
@@ -177,29 +167,6 @@ public class PaymentService {
         return convertToDto(updatedPayment);
     }
 
-    public byte[] generatePaymentReceipt(Long paymentId) {
-        Payment payment = paymentRepository.findById(paymentId)
-                .orElseThrow(() -> new RuntimeException("Payment not found with id: " + paymentId));
-
-        return generatePaymentReceipt(payment);
-    }
-
-    private byte[] generatePaymentReceipt(Payment payment) {
-        try {
-            byte[] pdfBytes = pdfService.generatePaymentReceipt(payment);
-
-            // Save receipt URL (in real app, upload to cloud storage)
-            String receiptUrl = "/api/payments/" + payment.getId() + "/receipt";
-            payment.setReceiptUrl(receiptUrl);
-            paymentRepository.save(payment);
-
-            return pdfBytes;
-        } catch (Exception e) {
-            log.error("Failed to generate payment receipt for payment {}: {}", payment.getId(), e.getMessage());
-            throw new RuntimeException("Failed to generate payment receipt", e);
-        }
-    }
-
     // Statistics methods
     public PaymentStatsDto getPaymentStatistics() {
         long totalCompleted = paymentRepository.countCompletedPayments();
@@ -261,6 +228,7 @@ public class PaymentService {
         dto.setExternalPaymentId(payment.getExternalPaymentId());
         dto.setTransactionId(payment.getTransactionId());
         dto.setReceiptUrl(payment.getReceiptUrl());
+        dto.setReceiptSha256(payment.getReceiptSha256());
         dto.setCurrency(payment.getCurrency());
         dto.setRoomNumber(payment.getRoomNumber());
         dto.setDueDate(payment.getDueDate());
@@ -268,6 +236,7 @@ public class PaymentService {
         dto.setCreatedAt(payment.getCreatedAt());
         dto.setPeriodStart(payment.getPeriodStart());
         dto.setPeriodEnd(payment.getPeriodEnd());
+        dto.setBillingPeriod(payment.getBillingPeriod());
         dto.setFailureReason(payment.getFailureReason());
 
         dto.calculateFields();
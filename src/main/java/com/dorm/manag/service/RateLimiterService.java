@@ -0,0 +1,85 @@
+package com.dorm.manag.service;
+
+import com.dorm.manag.config.RateLimitProperties;
+import com.dorm.manag.exception.RateLimitExceededException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.ConsumptionProbe;
+import io.github.bucket4j.Refill;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * In-memory token buckets keyed by rule and client (IP or username).
+ * Buckets live in a bounded Caffeine map that drops idle entries, so
+ * memory stays flat no matter how many distinct clients show up. Rejections
+ * are counted per rule; they are logged at debug level only, since floods are
+ * exactly when this path is hot.
+ */
+@Slf4j
+@Service
+public class RateLimiterService {
+
+    private final Cache<String, Bucket> buckets;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Counter> rejectedCounters = new ConcurrentHashMap<>();
+
+    public RateLimiterService(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+
+        // Liczniki rejestrowane raz - odrzucenie tylko inkrementuje
+        Stream.concat(properties.getRoutes().stream(), Stream.of(properties.getUsername()))
+                .map(RateLimitProperties.Route::getName)
+                .filter(Objects::nonNull)
+                .forEach(this::rejectedCounter);
+
+        this.buckets = Caffeine.newBuilder()
+                .expireAfterAccess(properties.getIdleTimeout())
+                .maximumSize(properties.getMaxBuckets())
+                .build();
+    }
+
+    /**
+     * Take one token from the bucket for (rule, client)
+     *
+     * @return tokens left in the bucket
+     * @throws RateLimitExceededException when the bucket is empty
+     */
+    public long consume(RateLimitProperties.Route rule, String client) {
+        Bucket bucket = buckets.get(rule.getName() + '|' + client, key -> newBucket(rule));
+        ConsumptionProbe probe = bucket.tryConsumeAndReturnRemaining(1);
+
+        if (probe.isConsumed()) {
+            return probe.getRemainingTokens();
+        }
+
+        rejectedCounter(rule.getName()).increment();
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(probe.getNanosToWaitForRefill()) + 1);
+        log.debug("Rate limit '{}' exceeded by {}", rule.getName(), client);
+
+        throw new RateLimitExceededException("Too many requests, please try again later", retryAfterSeconds);
+    }
+
+    private Bucket newBucket(RateLimitProperties.Route rule) {
+        return Bucket.builder()
+                .addLimit(Bandwidth.classic(rule.getCapacity(), Refill.greedy(rule.getCapacity(), rule.getPeriod())))
+                .build();
+    }
+
+    private Counter rejectedCounter(String rule) {
+        return rejectedCounters.computeIfAbsent(rule, r -> Counter.builder("http.rate_limit.rejected")
+                .description("Requests rejected by the rate limiter")
+                .tag("rule", r)
+                .register(meterRegistry));
+    }
+}
@@ -0,0 +1,131 @@
+package com.dorm.manag.service;
+
+import com.dorm.manag.entity.Payment;
+import com.dorm.manag.entity.PaymentStatus;
+import com.dorm.manag.event.PaymentCompletedEvent;
+import com.dorm.manag.repository.PaymentRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Renders each completed payment's receipt once, after the completion has
+ * committed, and keeps it in the ReceiptStore. The PDF is rendered outside
+ * any transaction; only loading the payment and recording the hash touch the
+ * database. Receipts missed by the event (restart, full queue, payments
+ * completed before the store existed) are picked up by a periodic backfill.
+ */
+@Slf4j
+@Service
+public class ReceiptService {
+
+    static final String JOB_NAME = "receipt-backfill";
+
+    private final PaymentRepository paymentRepository;
+    private final PdfService pdfService;
+    private final ReceiptStore receiptStore;
+    private final TransactionOperations transactionOperations;
+    private final AsyncTaskExecutor taskExecutor;
+    private final JobLockService jobLockService;
+
+    public record StoredReceipt(String sha256, Path file) {
+    }
+
+    @Value("${app.payments.receipts.backfill-batch-size:50}")
+    private int backfillBatchSize;
+
+    @Value("${app.payments.receipts.lease-seconds:300}")
+    private long leaseSeconds;
+
+    public ReceiptService(PaymentRepository paymentRepository,
+            PdfService pdfService,
+            ReceiptStore receiptStore,
+            TransactionOperations transactionOperations,
+            @Qualifier("applicationTaskExecutor") AsyncTaskExecutor taskExecutor,
+            JobLockService jobLockService) {
+        this.paymentRepository = paymentRepository;
+        this.pdfService = pdfService;
+        this.receiptStore = receiptStore;
+        this.transactionOperations = transactionOperations;
+        this.taskExecutor = taskExecutor;
+        this.jobLockService = jobLockService;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPaymentCompleted(PaymentCompletedEvent event) {
+        try {
+            taskExecutor.execute(() -> renderQuietly(event.getPaymentId()));
+        } catch (TaskRejectedException e) {
+            log.warn("Receipt of payment {} not queued ({}), backfill will render it", event.getPaymentId(),
+                    e.getMessage());
+        }
+    }
+
+    /**
+     * Stored receipt of a completed payment, rendered now if the background
+     * render has not happened yet
+     *
+     * @return SHA-256 of the receipt and its file
+     */
+    public Optional<StoredReceipt> getReceipt(Long paymentId) {
+        Payment payment = transactionOperations.execute(status -> paymentRepository.findById(paymentId).orElse(null));
+        if (payment == null || payment.getStatus() != PaymentStatus.COMPLETED) {
+            return Optional.empty();
+        }
+
+        String sha256 = payment.getReceiptSha256();
+        Optional<Path> file = receiptStore.find(sha256);
+        if (file.isEmpty()) {
+            // Jeszcze nie wyrenderowany (albo plik zniknął z dysku)
+            sha256 = render(paymentId);
+            file = receiptStore.find(sha256);
+        }
+        String hash = sha256;
+        return file.map(path -> new StoredReceipt(hash, path));
+    }
+
+    @Scheduled(fixedDelayString = "${app.payments.receipts.backfill-interval-ms:600000}",
+            initialDelayString = "${app.payments.receipts.initial-delay-ms:120000}")
+    public void backfill() {
+        jobLockService.runExclusively(JOB_NAME, Duration.ofSeconds(leaseSeconds), () -> {
+            List<Long> ids = paymentRepository.findIdsWithoutReceipt(PageRequest.of(0, backfillBatchSize));
+            ids.forEach(this::renderQuietly);
+            if (!ids.isEmpty()) {
+                log.info("Receipt backfill rendered {} receipts", ids.size());
+            }
+        });
+    }
+
+    String render(Long paymentId) {
+        Payment payment = transactionOperations.execute(status -> paymentRepository.findWithUserById(paymentId)
+                .filter(p -> p.getStatus() == PaymentStatus.COMPLETED)
+                .orElseThrow(() -> new RuntimeException("Completed payment not found with id: " + paymentId)));
+
+        String sha256 = receiptStore.store(pdfService.generatePaymentReceipt(payment));
+        transactionOperations.executeWithoutResult(status -> paymentRepository.attachReceipt(
+                paymentId, sha256, "/api/payments/" + paymentId + "/receipt"));
+        log.info("Receipt of payment {} stored as {}", paymentId, sha256);
+        return sha256;
+    }
+
+    private void renderQuietly(Long paymentId) {
+        try {
+            render(paymentId);
+        } catch (RuntimeException e) {
+            log.error("Failed to render receipt for payment {}: {}", paymentId, e.getMessage());
+        }
+    }
+}
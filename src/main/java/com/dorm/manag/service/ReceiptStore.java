@@ -0,0 +1,86 @@
+package com.dorm.manag.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed store for rendered receipts:
+ * {file.upload-dir}/receipts/ab/abcdef....pdf, named by the SHA-256 of the
+ * PDF. A stored file never changes, so the hash doubles as a strong ETag.
+ * Files are written to a temp file and moved into place, readers never see a
+ * partial PDF.
+ */
+@Component
+public class ReceiptStore {
+
+    private static final Pattern SHA256_HEX = Pattern.compile("[0-9a-f]{64}");
+
+    private final Path root;
+
+    public ReceiptStore(@Value("${file.upload-dir:uploads/}") String uploadDir) {
+        this.root = Paths.get(uploadDir, "receipts").toAbsolutePath().normalize();
+    }
+
+    /**
+     * @return SHA-256 (hex) of the stored content
+     */
+    public String store(byte[] content) {
+        String sha256 = sha256(content);
+        Path target = pathOf(sha256);
+        if (Files.exists(target)) {
+            return sha256;
+        }
+
+        try {
+            Files.createDirectories(target.getParent());
+            Path temp = Files.createTempFile(target.getParent(), sha256, ".tmp");
+            try {
+                Files.write(temp, content);
+                try {
+                    Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to store receipt " + sha256, e);
+        }
+        return sha256;
+    }
+
+    public Optional<Path> find(String sha256) {
+        if (sha256 == null || !SHA256_HEX.matcher(sha256).matches()) {
+            return Optional.empty();
+        }
+        Path path = pathOf(sha256);
+        return Files.isRegularFile(path) ? Optional.of(path) : Optional.empty();
+    }
+
+    private Path pathOf(String sha256) {
+        // Dwa znaki prefiksu - bez dziesiątek tysięcy plików w jednym katalogu
+        return root.resolve(sha256.substring(0, 2)).resolve(sha256 + ".pdf");
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
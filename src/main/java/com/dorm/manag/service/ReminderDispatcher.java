@@ -0,0 +1,234 @@
+package com.dorm.manag.service;
+
+import com.dorm.manag.entity.Reservation;
+import com.dorm.manag.entity.ReservationStatus;
+import com.dorm.manag.event.ReservationChangedEvent;
+import com.dorm.manag.repository.ReservationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Sends reservation reminders (and key pickup notices for resources that need
+ * a key) reminder-lead-minutes before the start. Upcoming reservations sit in
+ * an in-memory TimingWheel that is topped up from the database every few
+ * minutes and from local ReservationChangedEvents in between; the wheel ticks
+ * every second without touching the database. reminderSent is set in one
+ * UPDATE per batch of due reservations. Only the node holding the
+ * "reminder-dispatcher" job lock keeps a wheel.
+ */
+@Slf4j
+@Component
+public class ReminderDispatcher {
+
+    static final String JOB_NAME = "reminder-dispatcher";
+    private static final int WHEEL_LEVELS = 4;
+
+    private final ReservationRepository reservationRepository;
+    private final NotificationService notificationService;
+    private final JobLockService jobLockService;
+    private final TransactionOperations transactionOperations;
+
+    private final Counter reservationReminders;
+    private final Counter keyPickupReminders;
+
+    private final long tickMs;
+    private final long leadMinutes;
+    private final long horizonMinutes;
+    private final long refillIntervalMs;
+    private final int batchSize;
+
+    private final TimingWheel wheel;
+    // Terminy, które już minęły przy dodawaniu - wysyłane przy najbliższym tyknięciu
+    private final Queue<Long> dueNow = new ConcurrentLinkedQueue<>();
+    private volatile boolean leader;
+
+    public ReminderDispatcher(ReservationRepository reservationRepository,
+            NotificationService notificationService,
+            JobLockService jobLockService,
+            TransactionOperations transactionOperations,
+            MeterRegistry meterRegistry,
+            @Value("${app.reservations.reminders.tick-ms:1000}") long tickMs,
+            @Value("${app.reservations.reminders.lead-minutes:30}") long leadMinutes,
+            @Value("${app.reservations.reminders.horizon-minutes:180}") long horizonMinutes,
+            @Value("${app.reservations.reminders.refill-interval-ms:300000}") long refillIntervalMs,
+            @Value("${app.reservations.reminders.batch-size:100}") int batchSize) {
+        this.reservationRepository = reservationRepository;
+        this.notificationService = notificationService;
+        this.jobLockService = jobLockService;
+        this.transactionOperations = transactionOperations;
+        this.tickMs = tickMs;
+        this.leadMinutes = leadMinutes;
+        this.horizonMinutes = horizonMinutes;
+        this.refillIntervalMs = refillIntervalMs;
+        this.batchSize = batchSize;
+        this.wheel = new TimingWheel(WHEEL_LEVELS, System.currentTimeMillis() / tickMs);
+
+        this.reservationReminders = Counter.builder("reservations.reminders.sent")
+                .description("Reminders sent for upcoming reservations")
+                .tag("type", "reservation")
+                .register(meterRegistry);
+        this.keyPickupReminders = Counter.builder("reservations.reminders.sent")
+                .description("Reminders sent for upcoming reservations")
+                .tag("type", "key_pickup")
+                .register(meterRegistry);
+        Gauge.builder("reservations.reminders.scheduled", this, dispatcher -> dispatcher.scheduledCount())
+                .description("Reminders waiting in the timing wheel")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Renews the job lock and loads reservations starting within the horizon
+     * that are not in the wheel yet
+     */
+    @Scheduled(fixedDelayString = "${app.reservations.reminders.refill-interval-ms:300000}",
+            initialDelayString = "${app.reservations.reminders.initial-delay-ms:15000}")
+    public void refill() {
+        // Dzierżawa na kilka odświeżeń - lider ją przedłuża, po awarii przejmie inny węzeł
+        boolean acquired = jobLockService.tryAcquire(JOB_NAME, Duration.ofMillis(refillIntervalMs * 3));
+        if (!acquired) {
+            if (leader) {
+                log.info("Reminder dispatcher lease lost, another node sends reminders now");
+                synchronized (wheel) {
+                    wheel.clear();
+                }
+            }
+            leader = false;
+            return;
+        }
+        leader = true;
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> candidates = reservationRepository.findReminderCandidates(now,
+                now.plusMinutes(horizonMinutes + leadMinutes));
+
+        int added = 0;
+        synchronized (wheel) {
+            for (Object[] row : candidates) {
+                Long id = (Long) row[0];
+                if (!wheel.contains(id)) {
+                    schedule(id, (LocalDateTime) row[1]);
+                    added++;
+                }
+            }
+        }
+        log.debug("Reminder wheel refilled: {} new, {} scheduled", added, wheel.size());
+    }
+
+    @Scheduled(fixedDelayString = "${app.reservations.reminders.tick-ms:1000}")
+    public void tick() {
+        if (!leader) {
+            return;
+        }
+
+        List<Long> due;
+        synchronized (wheel) {
+            due = wheel.advanceTo(System.currentTimeMillis() / tickMs);
+        }
+        Long id;
+        while ((id = dueNow.poll()) != null) {
+            due.add(id);
+        }
+
+        for (int from = 0; from < due.size(); from += batchSize) {
+            dispatch(due.subList(from, Math.min(from + batchSize, due.size())));
+        }
+    }
+
+    /**
+     * Keeps the wheel in step with bookings made on this node; other nodes'
+     * bookings arrive with the next refill
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onReservationChanged(ReservationChangedEvent event) {
+        if (!leader) {
+            return;
+        }
+
+        synchronized (wheel) {
+            if (event.getStatus() == ReservationStatus.CONFIRMED) {
+                LocalDateTime horizon = LocalDateTime.now().plusMinutes(horizonMinutes + leadMinutes);
+                if (event.getStartTime().isAfter(LocalDateTime.now()) && !event.getStartTime().isAfter(horizon)) {
+                    schedule(event.getReservationId(), event.getStartTime());
+                }
+            } else {
+                wheel.cancel(event.getReservationId());
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (leader) {
+            leader = false;
+            jobLockService.release(JOB_NAME);
+        }
+    }
+
+    private void schedule(Long id, LocalDateTime startTime) {
+        long remindAt = startTime.minusMinutes(leadMinutes).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        if (!wheel.schedule(id, remindAt / tickMs)) {
+            dueNow.add(id);
+        }
+    }
+
+    private void dispatch(List<Long> ids) {
+        List<Reservation> reservations;
+        try {
+            // Najpierw oznaczamy reminderSent, potem wysyłamy - bez duplikatów po awarii
+            reservations = transactionOperations.execute(status -> {
+                List<Reservation> due = reservationRepository.findDueForReminder(ids);
+                if (!due.isEmpty()) {
+                    reservationRepository.markRemindersSent(due.stream().map(Reservation::getId).toList());
+                }
+                return due;
+            });
+        } catch (RuntimeException e) {
+            log.warn("Failed to dispatch {} reminders: {}", ids.size(), e.getMessage());
+            return;
+        }
+
+        for (Reservation reservation : reservations) {
+            notificationService.notifyReservationReminder(
+                    reservation.getUser(),
+                    reservation.getResource().getName(),
+                    reservation.getStartTime().toString());
+            reservationReminders.increment();
+
+            if (Boolean.TRUE.equals(reservation.getResource().getRequiresKey())
+                    && !Boolean.TRUE.equals(reservation.getKeyPickedUp())) {
+                notificationService.notifyKeyPickupReady(
+                        reservation.getUser(),
+                        "key for " + reservation.getResource().getName(),
+                        reservation.getResource().getKeyLocation());
+                keyPickupReminders.increment();
+            }
+        }
+
+        if (!reservations.isEmpty()) {
+            log.info("Sent {} reservation reminders", reservations.size());
+        }
+    }
+
+    private int scheduledCount() {
+        synchronized (wheel) {
+            return wheel.size();
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package com.dorm.manag.service;
+
+import com.dorm.manag.dto.CreateInvoicingRunRequest;
+import com.dorm.manag.dto.InvoicingRunDto;
+import com.dorm.manag.entity.InvoicingRun;
+import com.dorm.manag.entity.InvoicingRunStatus;
+import com.dorm.manag.entity.PaymentMethod;
+import com.dorm.manag.entity.PaymentStatus;
+import com.dorm.manag.repository.InvoicingRunRepository;
+import com.dorm.manag.repository.PaymentRepository;
+import com.dorm.manag.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Monthly rent for every active student in one background run. Students are
+ * read in keyset pages (id order, id and room number only) and each page is
+ * written with one JDBC batch in the same transaction that moves the run's
+ * checkpoint, so an interrupted run resumes after the last committed page.
+ * The unique (user, payment type, billing period) key makes a period
+ * impossible to invoice twice; students who already have a payment for the
+ * period are skipped.
+ */
+@Slf4j
+@Service
+public class RentInvoicingService {
+
+    static final String JOB_NAME = "rent-invoicing";
+    static final String PAYMENT_TYPE = "RENT";
+    private static final int MAX_FAILURE_REASON = 1000;
+    private static final String INSERT_SQL = "INSERT INTO payments (user_id, amount, payment_method, status, " +
+            "description, payment_type, transaction_id, currency, room_number, due_date, period_start, period_end, " +
+            "billing_period, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final InvoicingRunRepository invoicingRunRepository;
+    private final UserRepository userRepository;
+    private final PaymentRepository paymentRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionOperations transactionOperations;
+    private final JobLockService jobLockService;
+    private final AsyncTaskExecutor taskExecutor;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Value("${app.payments.invoicing.amount:1200.00}")
+    private BigDecimal defaultAmount;
+
+    @Value("${app.payments.invoicing.due-day-of-month:10}")
+    private int dueDayOfMonth;
+
+    @Value("${app.payments.invoicing.page-size:1000}")
+    private int pageSize;
+
+    @Value("${app.payments.invoicing.lease-minutes:30}")
+    private long leaseMinutes;
+
+    public RentInvoicingService(InvoicingRunRepository invoicingRunRepository,
+            UserRepository userRepository,
+            PaymentRepository paymentRepository,
+            JdbcTemplate jdbcTemplate,
+            TransactionOperations transactionOperations,
+            JobLockService jobLockService,
+            @Qualifier("applicationTaskExecutor") AsyncTaskExecutor taskExecutor) {
+        this.invoicingRunRepository = invoicingRunRepository;
+        this.userRepository = userRepository;
+        this.paymentRepository = paymentRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionOperations = transactionOperations;
+        this.jobLockService = jobLockService;
+        this.taskExecutor = taskExecutor;
+    }
+
+    /**
+     * Starts invoicing of a billing period, or resumes its interrupted run.
+     *
+     * @throws IllegalStateException when the period is already invoiced or a
+     *                               run is already in progress on this node
+     */
+    public InvoicingRunDto startRun(CreateInvoicingRunRequest request, String startedBy) {
+        YearMonth period = YearMonth.parse(request.getBillingPeriod());
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("An invoicing run is already in progress");
+        }
+
+        InvoicingRun run;
+        try {
+            run = prepareRun(period, request, startedBy);
+            taskExecutor.execute(() -> {
+                try {
+                    if (!jobLockService.runExclusively(JOB_NAME, Duration.ofMinutes(leaseMinutes),
+                            () -> execute(run.getId()))) {
+                        log.info("Rent invoicing for {} is being executed by another node", period);
+                    }
+                } finally {
+                    running.set(false);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            running.set(false);
+            throw new IllegalStateException("Invoicing run could not be queued, please try again later");
+        } catch (RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+        return convertToDto(run);
+    }
+
+    /**
+     * Invoices the current month on app.payments.invoicing.cron (off unless
+     * set); also resumes the month's run after a crash
+     */
+    @Scheduled(cron = "${app.payments.invoicing.cron:-}")
+    public void invoiceCurrentMonth() {
+        CreateInvoicingRunRequest request = new CreateInvoicingRunRequest();
+        request.setBillingPeriod(YearMonth.now().toString());
+        try {
+            startRun(request, "scheduler");
+        } catch (IllegalStateException e) {
+            log.debug("Scheduled rent invoicing skipped: {}", e.getMessage());
+        }
+    }
+
+    public Optional<InvoicingRunDto> getRun(String billingPeriod) {
+        return transactionOperations.execute(status -> invoicingRunRepository
+                .findByPaymentTypeAndBillingPeriod(PAYMENT_TYPE, billingPeriod)
+                .map(this::convertToDto));
+    }
+
+    public List<InvoicingRunDto> getRuns() {
+        return transactionOperations.execute(status -> invoicingRunRepository.findAllByOrderByBillingPeriodDesc()
+                .stream()
+                .map(this::convertToDto)
+                .toList());
+    }
+
+    private InvoicingRun prepareRun(YearMonth period, CreateInvoicingRunRequest request, String startedBy) {
+        Optional<InvoicingRun> existing = transactionOperations.execute(status -> invoicingRunRepository
+                .findByPaymentTypeAndBillingPeriod(PAYMENT_TYPE, period.toString()));
+        if (existing.isPresent()) {
+            InvoicingRun run = existing.get();
+            if (!run.getStatus().canBeResumed()) {
+                throw new IllegalStateException("Rent for " + period + " has already been invoiced");
+            }
+            // Wznowienie z parametrami pierwszego uruchomienia - część płatności już istnieje
+            transactionOperations.executeWithoutResult(
+                    status -> invoicingRunRepository.markResumed(run.getId(), LocalDateTime.now()));
+            run.setStatus(InvoicingRunStatus.RUNNING);
+            run.setFailureReason(null);
+            log.info("Resuming rent invoicing for {} after user {}", period, run.getLastUserId());
+            return run;
+        }
+
+        InvoicingRun run = new InvoicingRun();
+        run.setPaymentType(PAYMENT_TYPE);
+        run.setBillingPeriod(period.toString());
+        run.setAmount(request.getAmount() != null ? request.getAmount() : defaultAmount);
+        run.setDescription(request.getDescription() != null ? request.getDescription() : "Rent for " + period);
+        run.setDueDate(request.getDueDate() != null ? request.getDueDate()
+                : period.atDay(Math.min(dueDayOfMonth, period.lengthOfMonth())).atTime(23, 59, 59));
+        run.setStartedBy(startedBy);
+        try {
+            InvoicingRun saved = transactionOperations.execute(status -> invoicingRunRepository.saveAndFlush(run));
+            log.info("Rent invoicing for {} started by {}: {} due {}", period, startedBy, saved.getAmount(),
+                    saved.getDueDate());
+            return saved;
+        } catch (DataIntegrityViolationException e) {
+            // Inny węzeł założył run dla tego okresu w tym samym momencie
+            throw new IllegalStateException("Rent invoicing for " + period + " was started concurrently");
+        }
+    }
+
+    void execute(Long runId) {
+        InvoicingRun run = transactionOperations.execute(
+                status -> invoicingRunRepository.findById(runId).orElse(null));
+        if (run == null || run.getStatus() != InvoicingRunStatus.RUNNING) {
+            return;
+        }
+
+        long startedAt = System.currentTimeMillis();
+        Long cursor = run.getLastUserId();
+        try {
+            while (cursor != null) {
+                Long afterUserId = cursor;
+                cursor = transactionOperations.execute(status -> invoicePage(run, afterUserId));
+            }
+            transactionOperations.executeWithoutResult(
+                    status -> invoicingRunRepository.markCompleted(runId, LocalDateTime.now()));
+        } catch (RuntimeException e) {
+            log.error("Rent invoicing for {} failed: {}", run.getBillingPeriod(), e.getMessage(), e);
+            String reason = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            transactionOperations.executeWithoutResult(status -> invoicingRunRepository.markFailed(runId,
+                    reason.length() > MAX_FAILURE_REASON ? reason.substring(0, MAX_FAILURE_REASON) : reason,
+                    LocalDateTime.now()));
+            return;
+        }
+
+        transactionOperations.execute(status -> invoicingRunRepository.findById(runId)).ifPresent(done -> log.info(
+                "Rent invoicing for {} completed in {} ms: {} payments created, {} students already invoiced",
+                done.getBillingPeriod(), System.currentTimeMillis() - startedAt, done.getCreatedCount(),
+                done.getSkippedCount()));
+    }
+
+    /**
+     * One page of students after the checkpoint
+     *
+     * @return the new checkpoint, or null when this was the last page
+     */
+    private Long invoicePage(InvoicingRun run, Long afterUserId) {
+        List<Object[]> students = userRepository.findActiveStudentsAfter(afterUserId, PageRequest.of(0, pageSize));
+        if (students.isEmpty()) {
+            return null;
+        }
+
+        List<Long> userIds = students.stream().map(row -> (Long) row[0]).toList();
+        Set<Long> invoiced = new HashSet<>(
+                paymentRepository.findInvoicedUserIds(PAYMENT_TYPE, run.getBillingPeriod(), userIds));
+        List<Object[]> toInvoice = invoiced.isEmpty() ? students
+                : students.stream().filter(row -> !invoiced.contains((Long) row[0])).toList();
+        if (!toInvoice.isEmpty()) {
+            batchInsert(run, toInvoice);
+        }
+
+        Long lastUserId = userIds.get(userIds.size() - 1);
+        if (invoicingRunRepository.advanceCheckpoint(run.getId(), afterUserId, lastUserId, toInvoice.size(),
+                invoiced.size(), LocalDateTime.now()) == 0) {
+            // Run zatrzymany albo przejęty po wygaśnięciu dzierżawy - wycofujemy tę stronę
+            throw new IllegalStateException("Checkpoint of invoicing run " + run.getId() + " moved concurrently");
+        }
+        return students.size() < pageSize ? null : lastUserId;
+    }
+
+    /**
+     * IDENTITY ids switch Hibernate batching off - one JdbcTemplate batch per
+     * page instead
+     */
+    private void batchInsert(InvoicingRun run, List<Object[]> students) {
+        YearMonth period = YearMonth.parse(run.getBillingPeriod());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        Timestamp dueDate = Timestamp.valueOf(run.getDueDate());
+        Timestamp periodStart = Timestamp.valueOf(period.atDay(1).atStartOfDay());
+        Timestamp periodEnd = Timestamp.valueOf(period.atEndOfMonth().atTime(23, 59, 59));
+
+        jdbcTemplate.batchUpdate(INSERT_SQL, students, students.size(), (ps, row) -> {
+            ps.setLong(1, (Long) row[0]);
+            ps.setBigDecimal(2, run.getAmount());
+            ps.setString(3, PaymentMethod.CARD.name());
+            ps.setString(4, PaymentStatus.PENDING.name());
+            ps.setString(5, run.getDescription());
+            ps.setString(6, PAYMENT_TYPE);
+            ps.setString(7, transactionId());
+            ps.setString(8, run.getCurrency());
+            if (row[1] != null) {
+                ps.setString(9, (String) row[1]);
+            } else {
+                ps.setNull(9, Types.VARCHAR);
+            }
+            ps.setTimestamp(10, dueDate);
+            ps.setTimestamp(11, periodStart);
+            ps.setTimestamp(12, periodEnd);
+            ps.setString(13, run.getBillingPeriod());
+            ps.setTimestamp(14, now);
+            ps.setTimestamp(15, now);
+        });
+    }
+
+    // Dłuższy niż w createPayment - przy dziesiątkach tysięcy płatności miesięcznie 8 znaków zaczęłoby się powtarzać
+    private static String transactionId() {
+        return "TXN-" + UUID.randomUUID().toString().replace("-", "").substring(0, 16).toUpperCase();
+    }
+
+    private InvoicingRunDto convertToDto(InvoicingRun run) {
+        InvoicingRunDto dto = new InvoicingRunDto();
+        dto.setId(run.getId());
+        dto.setPaymentType(run.getPaymentType());
+        dto.setBillingPeriod(run.getBillingPeriod());
+        dto.setAmount(run.getAmount());
+        dto.setCurrency(run.getCurrency());
+        dto.setDescription(run.getDescription());
+        dto.setDueDate(run.getDueDate());
+        dto.setStatus(run.getStatus());
+        dto.setLastUserId(run.getLastUserId());
+        dto.setCreatedCount(run.getCreatedCount());
+        dto.setSkippedCount(run.getSkippedCount());
+        dto.setStartedBy(run.getStartedBy());
+        dto.setFailureReason(run.getFailureReason());
+        dto.setCreatedAt(run.getCreatedAt());
+        dto.setCompletedAt(run.getCompletedAt());
+        return dto;
+    }
+}
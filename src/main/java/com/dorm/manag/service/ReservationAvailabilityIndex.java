@@ -0,0 +1,172 @@
+package com.dorm.manag.service;
+
+import com.dorm.manag.event.ReservationChangedEvent;
+import com.dorm.manag.repository.ReservationRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory view of the time slots blocked by CONFIRMED / CHECKED_IN
+ * reservations, one interval tree per resource. Loaded at startup, updated
+ * after commit from ReservationChangedEvent and fully reloaded from the
+ * database on a fixed interval, so changes made by other nodes are picked up.
+ * The database stays the source of truth.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReservationAvailabilityIndex {
+
+    private final ReservationRepository reservationRepository;
+
+    private volatile Map<Long, ResourceSlots> slotsByResource = new ConcurrentHashMap<>();
+
+    // Zmiany, które przyszły w trakcie przeładowania - odtwarzane przed podmianą
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private volatile Queue<ReservationChangedEvent> journal;
+
+    @PostConstruct
+    void init() {
+        rebuild();
+    }
+
+    public boolean hasConflict(Long resourceId, LocalDateTime start, LocalDateTime end) {
+        ResourceSlots slots = slotsByResource.get(resourceId);
+        return slots != null && slots.overlapsAny(toKey(start), toKey(end));
+    }
+
+    /**
+     * Blocked intervals of the resource overlapping [start, end), ordered by start
+     */
+    public List<IntervalTree.Interval> findBooked(Long resourceId, LocalDateTime start, LocalDateTime end) {
+        ResourceSlots slots = slotsByResource.get(resourceId);
+        return slots == null ? List.of() : slots.overlapping(toKey(start), toKey(end));
+    }
+
+    // Przed innymi listenerami (np. waitlista) - mają widzieć już zwolniony slot
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onReservationChanged(ReservationChangedEvent event) {
+        swapLock.readLock().lock();
+        try {
+            apply(slotsByResource, event);
+            Queue<ReservationChangedEvent> pending = journal;
+            if (pending != null) {
+                pending.add(event);
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Reload from the database; also drops reservations that have already ended
+     */
+    @Scheduled(fixedDelayString = "${app.reservations.index.resync-interval-ms:600000}",
+            initialDelayString = "${app.reservations.index.resync-interval-ms:600000}")
+    public void rebuild() {
+        journal = new ConcurrentLinkedQueue<>();
+
+        Map<Long, ResourceSlots> rebuilt = new ConcurrentHashMap<>();
+        List<Object[]> rows = reservationRepository.findActiveIntervalsEndingAfter(LocalDateTime.now());
+        for (Object[] row : rows) {
+            Long reservationId = (Long) row[0];
+            Long resourceId = (Long) row[1];
+            rebuilt.computeIfAbsent(resourceId, id -> new ResourceSlots())
+                    .put(reservationId, toKey((LocalDateTime) row[2]), toKey((LocalDateTime) row[3]));
+        }
+
+        swapLock.writeLock().lock();
+        try {
+            journal.forEach(event -> apply(rebuilt, event));
+            slotsByResource = rebuilt;
+            journal = null;
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+
+        log.info("Reservation availability index loaded: {} reservations across {} resources",
+                rows.size(), rebuilt.size());
+    }
+
+    private static void apply(Map<Long, ResourceSlots> target, ReservationChangedEvent event) {
+        ResourceSlots slots = target.computeIfAbsent(event.getResourceId(), id -> new ResourceSlots());
+        if (event.getStatus().isActive()) {
+            slots.put(event.getReservationId(), toKey(event.getStartTime()), toKey(event.getEndTime()));
+        } else {
+            slots.remove(event.getReservationId());
+        }
+    }
+
+    // Czas lokalny jako sekundy - porównania na long zamiast LocalDateTime
+    static long toKey(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static final class ResourceSlots {
+        private final IntervalTree tree = new IntervalTree();
+        private final Map<Long, long[]> byReservation = new HashMap<>();
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+        boolean overlapsAny(long start, long end) {
+            lock.readLock().lock();
+            try {
+                return tree.overlapsAny(start, end);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        List<IntervalTree.Interval> overlapping(long start, long end) {
+            lock.readLock().lock();
+            try {
+                return tree.overlapping(start, end);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        void put(long reservationId, long start, long end) {
+            lock.writeLock().lock();
+            try {
+                long[] existing = byReservation.put(reservationId, new long[] { start, end });
+                if (existing != null) {
+                    tree.remove(reservationId, existing[0]);
+                }
+                tree.insert(reservationId, start, end);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void remove(long reservationId) {
+            lock.writeLock().lock();
+            try {
+                long[] existing = byReservation.remove(reservationId);
+                if (existing != null) {
+                    tree.remove(reservationId, existing[0]);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.dorm.manag.service;
+
+import com.dorm.manag.dto.CreateReservationSeriesRequest;
+import com.dorm.manag.dto.ReservationSeriesResultDto;
+import com.dorm.manag.dto.ReservationSeriesResultDto.RejectedOccurrence;
+import com.dorm.manag.entity.ReservableResource;
+import com.dorm.manag.entity.Reservation;
+import com.dorm.manag.entity.ReservationStatus;
+import com.dorm.manag.entity.User;
+import com.dorm.manag.event.ReservationChangedEvent;
+import com.dorm.manag.repository.ReservableResourceRepository;
+import com.dorm.manag.repository.ReservationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Recurring reservations. All occurrences are checked against a single
+ * window query and the accepted ones are written with one JDBC batch, under
+ * the same per-resource lock as single bookings. Occurrences that clash are
+ * reported back instead of failing the whole series.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReservationSeriesService {
+
+    private static final String INSERT_SQL = "INSERT INTO reservations (user_id, resource_id, start_time, end_time, " +
+            "status, number_of_people, notes, total_cost, deposit_amount, payment_status, reminder_sent, late_fee, " +
+            "key_picked_up, key_returned, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final ReservationService reservationService;
+    private final ReservationRepository reservationRepository;
+    private final ReservableResourceRepository resourceRepository;
+    private final NotificationService notificationService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ResourceLocks resourceLocks;
+    private final TransactionOperations transactionOperations;
+    private final JdbcTemplate jdbcTemplate;
+
+    public ReservationSeriesResultDto createSeries(CreateReservationSeriesRequest request, User user) {
+        log.info("Creating {} reservation series ({} occurrences) for user: {} and resource: {}",
+                request.getFrequency(), request.getOccurrences(), user.getUsername(), request.getResourceId());
+
+        ReservationSeriesResultDto result = new ReservationSeriesResultDto();
+        List<Reservation> created;
+        try {
+            created = resourceLocks.withLock(request.getResourceId(),
+                    () -> transactionOperations.execute(status -> insertSeries(request, user, result)));
+        } catch (DataIntegrityViolationException e) {
+            // Naruszenie reservations_no_overlap - rezerwacja z innego węzła
+            log.warn("Overlapping series rejected by database for resource {}", request.getResourceId());
+            throw new RuntimeException("Resource was reserved concurrently, please try again");
+        }
+
+        if (!created.isEmpty()) {
+            Reservation first = created.get(0);
+            notificationService.notifyReservationConfirmed(
+                    user,
+                    first.getResource().getName(),
+                    first.getStartTime() + " (" + created.size() + " occurrences)");
+        }
+
+        created.forEach(reservation -> result.getCreated().add(reservationService.convertToDto(reservation)));
+
+        log.info("Reservation series for resource {}: {} created, {} rejected",
+                request.getResourceId(), result.getCreated().size(), result.getRejected().size());
+
+        return result;
+    }
+
+    private List<Reservation> insertSeries(CreateReservationSeriesRequest request, User user,
+            ReservationSeriesResultDto result) {
+        ReservableResource resource = resourceRepository.findById(request.getResourceId())
+                .orElseThrow(() -> new RuntimeException("Resource not found"));
+
+        Duration duration = Duration.between(request.getStartTime(), request.getEndTime());
+        List<LocalDateTime> starts = request.expandStartTimes();
+        LocalDateTime windowStart = starts.get(0).toLocalDate().atStartOfDay();
+        LocalDateTime lastEnd = starts.get(starts.size() - 1).plus(duration);
+        LocalDateTime windowEnd = lastEnd.toLocalDate().plusDays(1).atStartOfDay();
+
+        // Jedno zapytanie na cały zakres serii zamiast dwóch na każde wystąpienie
+        IntervalTree booked = new IntervalTree();
+        Map<LocalDate, Integer> userPerDay = new HashMap<>();
+        long syntheticId = 0;
+        for (Object[] row : reservationRepository.findSeriesWindow(resource.getId(), windowStart, windowEnd)) {
+            LocalDateTime start = (LocalDateTime) row[1];
+            LocalDateTime end = (LocalDateTime) row[2];
+            if (((ReservationStatus) row[3]).isActive()) {
+                booked.insert(--syntheticId, ReservationAvailabilityIndex.toKey(start),
+                        ReservationAvailabilityIndex.toKey(end));
+            }
+            if (user.getId().equals(row[0])) {
+                userPerDay.merge(start.toLocalDate(), 1, Integer::sum);
+            }
+        }
+
+        List<Reservation> accepted = new ArrayList<>();
+        for (LocalDateTime start : starts) {
+            LocalDateTime end = start.plus(duration);
+            String reason = rejectionReason(resource, start, end, request.getNumberOfPeople(), booked, userPerDay);
+            if (reason != null) {
+                result.getRejected().add(new RejectedOccurrence(start, end, reason));
+                continue;
+            }
+
+            Reservation reservation = new Reservation(user, resource, start, end);
+            reservation.setNumberOfPeople(request.getNumberOfPeople());
+            reservation.setNotes(request.getNotes());
+            accepted.add(reservation);
+
+            // Kolejne wystąpienia nie mogą nachodzić na te już przyjęte
+            booked.insert(--syntheticId, ReservationAvailabilityIndex.toKey(start),
+                    ReservationAvailabilityIndex.toKey(end));
+            userPerDay.merge(start.toLocalDate(), 1, Integer::sum);
+        }
+
+        if (!accepted.isEmpty()) {
+            batchInsert(accepted);
+            accepted.forEach(reservation -> eventPublisher.publishEvent(ReservationChangedEvent.of(reservation, null)));
+        }
+
+        return accepted;
+    }
+
+    private String rejectionReason(ReservableResource resource, LocalDateTime start, LocalDateTime end,
+            Integer numberOfPeople, IntervalTree booked, Map<LocalDate, Integer> userPerDay) {
+        try {
+            reservationService.validateSlot(resource, start, end, numberOfPeople);
+        } catch (RuntimeException e) {
+            return e.getMessage();
+        }
+
+        if (booked.overlapsAny(ReservationAvailabilityIndex.toKey(start), ReservationAvailabilityIndex.toKey(end))) {
+            return "Resource is already reserved for this time slot";
+        }
+
+        if (userPerDay.getOrDefault(start.toLocalDate(), 0) >= resource.getMaxReservationsPerUserPerDay()) {
+            return "You have reached the daily reservation limit for this resource";
+        }
+
+        return null;
+    }
+
+    /**
+     * IDENTITY ids switch Hibernate batching off, so the rows go through a
+     * single JdbcTemplate batch and the generated keys are copied back
+     */
+    private void batchInsert(List<Reservation> reservations) {
+        LocalDateTime now = LocalDateTime.now();
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_SQL, new String[] { "id" }),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Reservation r = reservations.get(i);
+                        ps.setLong(1, r.getUser().getId());
+                        ps.setLong(2, r.getResource().getId());
+                        ps.setTimestamp(3, Timestamp.valueOf(r.getStartTime()));
+                        ps.setTimestamp(4, Timestamp.valueOf(r.getEndTime()));
+                        ps.setString(5, r.getStatus().name());
+                        // null jak w pojedynczej rezerwacji - klient może wysłać "numberOfPeople": null
+                        ps.setObject(6, r.getNumberOfPeople(), Types.INTEGER);
+                        if (r.getNotes() != null) {
+                            ps.setString(7, r.getNotes());
+                        } else {
+                            ps.setNull(7, Types.VARCHAR);
+                        }
+                        ps.setBigDecimal(8, r.getTotalCost());
+                        ps.setBigDecimal(9, r.getDepositAmount());
+                        ps.setString(10, r.getPaymentStatus());
+                        ps.setBoolean(11, r.getReminderSent());
+                        ps.setBigDecimal(12, r.getLateFee());
+                        ps.setBoolean(13, r.getKeyPickedUp());
+                        ps.setBoolean(14, r.getKeyReturned());
+                        ps.setTimestamp(15, Timestamp.valueOf(now));
+                        ps.setTimestamp(16, Timestamp.valueOf(now));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return reservations.size();
+                    }
+                },
+                keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < reservations.size(); i++) {
+            Reservation reservation = reservations.get(i);
+            reservation.setId(((Number) keys.get(i).values().iterator().next()).longValue());
+            reservation.setCreatedAt(now);
+            reservation.setUpdatedAt(now);
+        }
+    }
+}
@@ -1,33 +1,82 @@
 package com.dorm.manag.service;
 
+import com.dorm.manag.config.ReservationConstraintInitializer;
 import com.dorm.manag.dto.CreateReservationRequest;
+import com.dorm.manag.dto.CursorPage;
 import com.dorm.manag.dto.ReservationDto;
 import com.dorm.manag.entity.*;
+import com.dorm.manag.event.ReservationChangedEvent;
 import com.dorm.manag.repository.ReservableResourceRepository;
 import com.dorm.manag.repository.ReservationRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.Base64;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.regex.Pattern;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class ReservationService {
 
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final String CURSOR_SEPARATOR = "|";
+
     private final ReservationRepository reservationRepository;
     private final ReservableResourceRepository resourceRepository;
     private final NotificationService notificationService;
-
-    @Transactional
+    private final ReservationAvailabilityIndex availabilityIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ResourceLocks resourceLocks;
+    private final TransactionOperations transactionOperations;
+    private final ReservationConstraintInitializer constraintInitializer;
+
+    /**
+     * Bookings of one resource are serialized by a striped lock held until the
+     * transaction has committed and the availability index has been updated;
+     * the reservations_no_overlap constraint covers other nodes.
+     */
     public ReservationDto createReservation(CreateReservationRequest request, User user) {
         log.info("Creating reservation for user: {} and resource: {}", user.getUsername(), request.getResourceId());
 
+        Reservation savedReservation;
+        try {
+            savedReservation = resourceLocks.withLock(request.getResourceId(),
+                    () -> transactionOperations.execute(status -> insertReservation(request, user)));
+        } catch (DataIntegrityViolationException e) {
+            if (!ReservationConstraintInitializer.isOverlapViolation(e)) {
+                throw e;
+            }
+            // Naruszenie reservations_no_overlap - rezerwacja z innego węzła
+            log.warn("Overlapping reservation rejected by database for resource {}", request.getResourceId());
+            throw new RuntimeException("Resource is already reserved for this time slot");
+        }
+
+        // Wyślij powiadomienie (poza blokadą)
+        notificationService.notifyReservationConfirmed(
+                user,
+                savedReservation.getResource().getName(),
+                request.getStartTime().toString());
+
+        log.info("Reservation created: {}", savedReservation.getId());
+
+        return convertToDto(savedReservation);
+    }
+
+    /**
+     * Caller must hold the resource lock and run inside a transaction
+     */
+    Reservation insertReservation(CreateReservationRequest request, User user) {
         // Pobierz zasób
         ReservableResource resource = resourceRepository.findById(request.getResourceId())
                 .orElseThrow(() -> new RuntimeException("Resource not found"));
@@ -36,12 +85,7 @@ public class ReservationService {
         validateReservation(request, resource, user);
 
         // Sprawdź konflikty czasowe
-        List<Reservation> conflicts = reservationRepository.findConflictingReservations(
-                request.getResourceId(),
-                request.getStartTime(),
-                request.getEndTime());
-
-        if (!conflicts.isEmpty()) {
+        if (isSlotTaken(request.getResourceId(), request.getStartTime(), request.getEndTime())) {
             throw new RuntimeException("Resource is already reserved for this time slot");
         }
 
@@ -50,36 +94,37 @@ public class ReservationService {
         reservation.setNumberOfPeople(request.getNumberOfPeople());
         reservation.setNotes(request.getNotes());
 
-        Reservation savedReservation = reservationRepository.save(reservation);
-
-        // Wyślij powiadomienie
-        notificationService.notifyReservationConfirmed(
-                user,
-                resource.getName(),
-                request.getStartTime().toString());
+        Reservation savedReservation = reservationRepository.saveAndFlush(reservation);
+        eventPublisher.publishEvent(ReservationChangedEvent.of(savedReservation, null));
 
-        log.info("Reservation created: {}", savedReservation.getId());
+        return savedReservation;
+    }
 
-        return convertToDto(savedReservation);
+    /**
+     * The index answers "free" without a query. A conflict it reports is
+     * confirmed against the database: a cancellation made on another node
+     * only reaches the index with the next resync. Without the
+     * reservations_no_overlap constraint (H2, missing privileges) bookings
+     * from other nodes may be missing from the index, so "free" is checked
+     * against the database too.
+     */
+    boolean isSlotTaken(Long resourceId, LocalDateTime start, LocalDateTime end) {
+        if (!availabilityIndex.hasConflict(resourceId, start, end) && constraintInitializer.isInstalled()) {
+            return false;
+        }
+        return !reservationRepository.findConflictingReservations(resourceId, start, end).isEmpty();
     }
 
     @Transactional(readOnly = true)
     public List<ReservationDto> getUserReservations(User user) {
-        List<Reservation> reservations = reservationRepository.findByUserOrderByStartTimeDesc(user);
-        return reservations.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return reservationRepository.findDtosByUserId(user.getId());
     }
 
     @Transactional(readOnly = true)
     public List<ReservationDto> getUpcomingReservations() {
         LocalDateTime now = LocalDateTime.now();
         LocalDateTime futureLimit = now.plusDays(7);
-        List<Reservation> reservations = reservationRepository.findUpcomingReservations(now, futureLimit);
-
-        return reservations.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return reservationRepository.findUpcomingDtos(now, futureLimit);
     }
 
     @Transactional(readOnly = true)
@@ -102,8 +147,10 @@ public class ReservationService {
             throw new RuntimeException("Reservation cannot be cancelled at this stage");
         }
 
+        ReservationStatus previousStatus = reservation.getStatus();
         reservation.cancel("Cancelled by user");
         Reservation savedReservation = reservationRepository.save(reservation);
+        eventPublisher.publishEvent(ReservationChangedEvent.of(savedReservation, previousStatus));
 
         log.info("Reservation {} cancelled by {}", id, user.getUsername());
 
@@ -123,8 +170,10 @@ public class ReservationService {
             throw new RuntimeException("Cannot check-in at this time");
         }
 
+        ReservationStatus previousStatus = reservation.getStatus();
         reservation.checkIn();
         Reservation savedReservation = reservationRepository.save(reservation);
+        eventPublisher.publishEvent(ReservationChangedEvent.of(savedReservation, previousStatus));
 
         log.info("User {} checked in to reservation {}", user.getUsername(), id);
 
@@ -136,50 +185,140 @@ public class ReservationService {
         Reservation reservation = reservationRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Reservation not found"));
 
+        ReservationStatus previousStatus = reservation.getStatus();
         reservation.complete();
         Reservation savedReservation = reservationRepository.save(reservation);
+        eventPublisher.publishEvent(ReservationChangedEvent.of(savedReservation, previousStatus));
 
         log.info("Reservation {} completed", id);
 
         return convertToDto(savedReservation);
     }
 
+    /**
+     * Reservations of one resource starting in [start, end], ordered by start
+     * time. Keyset-paginated: pass the previous page's nextCursor to continue.
+     */
     @Transactional(readOnly = true)
-    public List<ReservationDto> getResourceReservations(Long resourceId, LocalDateTime start, LocalDateTime end) {
-        List<Reservation> reservations = reservationRepository.findByStartTimeBetween(start, end);
+    public CursorPage<ReservationDto> getResourceReservations(Long resourceId, LocalDateTime start,
+            LocalDateTime end, String cursor, int limit) {
+        int pageSize = pageSize(limit);
+        LocalDateTime afterStart = start;
+        long afterId = 0;
+        if (cursor != null) {
+            String[] parts = decodeCursor(cursor, 2);
+            try {
+                afterStart = LocalDateTime.parse(parts[0]);
+                afterId = Long.parseLong(parts[1]);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            if (afterStart.isBefore(start)) {
+                throw new IllegalArgumentException("Cursor does not belong to this time range");
+            }
+        }
 
-        return reservations.stream()
-                .filter(r -> r.getResource().getId().equals(resourceId))
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        List<ReservationDto> rows = reservationRepository.findResourceCalendarPage(
+                resourceId, afterStart, afterId, end, PageRequest.of(0, pageSize + 1));
+
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            ReservationDto last = rows.get(pageSize - 1);
+            nextCursor = encodeCursor(last.getStartTime() + CURSOR_SEPARATOR + last.getId());
+        }
+        return new CursorPage<>(rows, nextCursor);
     }
 
+    /**
+     * All reservations, newest first, keyset-paginated by id
+     */
     @Transactional(readOnly = true)
-    public List<ReservationDto> getAllReservations() {
-        List<Reservation> reservations = reservationRepository.findAll();
-        return reservations.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+    public CursorPage<ReservationDto> getAllReservations(String cursor, int limit) {
+        int pageSize = pageSize(limit);
+        long beforeId = Long.MAX_VALUE;
+        if (cursor != null) {
+            try {
+                beforeId = Long.parseLong(decodeCursor(cursor, 1)[0]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+
+        List<ReservationDto> rows = reservationRepository.findPageBefore(beforeId, PageRequest.of(0, pageSize + 1));
+
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            nextCursor = encodeCursor(String.valueOf(rows.get(pageSize - 1).getId()));
+        }
+        return new CursorPage<>(rows, nextCursor);
+    }
+
+    private static int pageSize(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be at least 1");
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+
+    // Kursor nieprzezroczysty dla klienta: base64url("startTime|id") albo base64url("id")
+    private static String encodeCursor(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCursor(String cursor, int expectedParts) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+                    .split(Pattern.quote(CURSOR_SEPARATOR));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        if (parts.length != expectedParts) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return parts;
     }
 
     private void validateReservation(CreateReservationRequest request, ReservableResource resource, User user) {
+        validateSlot(resource, request.getStartTime(), request.getEndTime(), request.getNumberOfPeople());
+
+        // Sprawdź limit rezerwacji per user per day
+        LocalDateTime dayStart = request.getStartTime().toLocalDate().atStartOfDay();
+        long userReservationsToday = reservationRepository.countUserReservationsForResourceBetween(
+                user.getId(),
+                resource.getId(),
+                dayStart,
+                dayStart.plusDays(1));
+
+        if (userReservationsToday >= resource.getMaxReservationsPerUserPerDay()) {
+            throw new RuntimeException("You have reached the daily reservation limit for this resource");
+        }
+    }
+
+    /**
+     * Checks that need no database access; shared with ReservationSeriesService
+     */
+    void validateSlot(ReservableResource resource, LocalDateTime startTime, LocalDateTime endTime,
+            Integer numberOfPeople) {
         // Sprawdź czy zasób jest aktywny
         if (!resource.getIsActive()) {
             throw new RuntimeException("Resource is not available");
         }
 
         // Sprawdź czy czas jest w przyszłości
-        if (request.getStartTime().isBefore(LocalDateTime.now())) {
+        if (startTime.isBefore(LocalDateTime.now())) {
             throw new RuntimeException("Cannot book in the past");
         }
 
         // Sprawdź czy koniec jest po początku
-        if (!request.getEndTime().isAfter(request.getStartTime())) {
+        if (!endTime.isAfter(startTime)) {
             throw new RuntimeException("End time must be after start time");
         }
 
         // Sprawdź minimalny/maksymalny czas trwania
-        long durationMinutes = java.time.Duration.between(request.getStartTime(), request.getEndTime()).toMinutes();
+        long durationMinutes = java.time.Duration.between(startTime, endTime).toMinutes();
 
         if (resource.getMinReservationDuration() != null && durationMinutes < resource.getMinReservationDuration()) {
             throw new RuntimeException(
@@ -191,23 +330,13 @@ public class ReservationService {
                     "Reservation too long. Maximum: " + resource.getMaxReservationDuration() + " minutes");
         }
 
-        // Sprawdź limit rezerwacji per user per day
-        long userReservationsToday = reservationRepository.countUserReservationsForResourceOnDate(
-                user.getId(),
-                resource.getId(),
-                request.getStartTime());
-
-        if (userReservationsToday >= resource.getMaxReservationsPerUserPerDay()) {
-            throw new RuntimeException("You have reached the daily reservation limit for this resource");
-        }
-
         // Sprawdź capacity
-        if (request.getNumberOfPeople() != null && !resource.hasCapacityFor(request.getNumberOfPeople())) {
+        if (numberOfPeople != null && !resource.hasCapacityFor(numberOfPeople)) {
             throw new RuntimeException("Resource capacity exceeded. Max: " + resource.getCapacity());
         }
     }
 
-    private ReservationDto convertToDto(Reservation reservation) {
+    ReservationDto convertToDto(Reservation reservation) {
         ReservationDto dto = new ReservationDto();
 
         // Basic info
@@ -0,0 +1,165 @@
+package com.dorm.manag.service;
+
+import com.dorm.manag.entity.ReservationStatus;
+import com.dorm.manag.event.ReservationChangedEvent;
+import com.dorm.manag.repository.ReservationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Moves finished reservations to their terminal states:
+ * <ul>
+ * <li>CONFIRMED without check-in after the check-in window -> NO_SHOW</li>
+ * <li>CHECKED_IN past the end time (plus grace) -> COMPLETED</li>
+ * <li>PENDING that was never approved before the start -> EXPIRED</li>
+ * </ul>
+ * Each chunk is one bulk UPDATE by id in its own transaction; entities are
+ * never loaded. Runs on one node at a time through JobLockService.
+ */
+@Slf4j
+@Component
+public class ReservationSweeper {
+
+    static final String JOB_NAME = "reservation-sweeper";
+
+    private final ReservationRepository reservationRepository;
+    private final JobLockService jobLockService;
+    private final TransactionOperations transactionOperations;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Counter noShowCounter;
+    private final Counter completedCounter;
+    private final Counter expiredCounter;
+    private final Timer runTimer;
+
+    @Value("${app.reservations.sweeper.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${app.reservations.sweeper.max-chunks-per-run:20}")
+    private int maxChunksPerRun;
+
+    // Koniec okna check-in (Reservation.canCheckIn: start + 30 min)
+    @Value("${app.reservations.sweeper.no-show-after-minutes:30}")
+    private long noShowAfterMinutes;
+
+    @Value("${app.reservations.sweeper.complete-after-minutes:60}")
+    private long completeAfterMinutes;
+
+    @Value("${app.reservations.sweeper.lease-seconds:600}")
+    private long leaseSeconds;
+
+    public ReservationSweeper(ReservationRepository reservationRepository,
+            JobLockService jobLockService,
+            TransactionOperations transactionOperations,
+            ApplicationEventPublisher eventPublisher,
+            MeterRegistry meterRegistry) {
+        this.reservationRepository = reservationRepository;
+        this.jobLockService = jobLockService;
+        this.transactionOperations = transactionOperations;
+        this.eventPublisher = eventPublisher;
+
+        this.noShowCounter = transitionCounter(meterRegistry, "no_show");
+        this.completedCounter = transitionCounter(meterRegistry, "completed");
+        this.expiredCounter = transitionCounter(meterRegistry, "expired");
+        this.runTimer = Timer.builder("reservations.sweeper.run")
+                .description("Duration of reservation sweeper runs")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.reservations.sweeper.interval-ms:300000}",
+            initialDelayString = "${app.reservations.sweeper.initial-delay-ms:60000}")
+    public void sweep() {
+        jobLockService.runExclusively(JOB_NAME, Duration.ofSeconds(leaseSeconds), () -> runTimer.record(this::sweepOnce));
+    }
+
+    void sweepOnce() {
+        LocalDateTime now = LocalDateTime.now();
+
+        int noShows = sweep(ReservationStatus.CONFIRMED, ReservationStatus.NO_SHOW,
+                now.minusMinutes(noShowAfterMinutes), true, now);
+        int completed = sweep(ReservationStatus.CHECKED_IN, ReservationStatus.COMPLETED,
+                now.minusMinutes(completeAfterMinutes), false, now);
+        int expired = sweep(ReservationStatus.PENDING, ReservationStatus.EXPIRED,
+                now, true, now);
+
+        noShowCounter.increment(noShows);
+        completedCounter.increment(completed);
+        expiredCounter.increment(expired);
+
+        if (noShows + completed + expired > 0) {
+            log.info("Reservation sweep: {} no-show, {} completed, {} expired", noShows, completed, expired);
+        } else {
+            log.debug("Reservation sweep: nothing to do");
+        }
+    }
+
+    private int sweep(ReservationStatus from, ReservationStatus to, LocalDateTime cutoff, boolean byStartTime,
+            LocalDateTime now) {
+        int total = 0;
+        for (int chunk = 0; chunk < maxChunksPerRun; chunk++) {
+            int[] result = transactionOperations.execute(status -> sweepChunk(from, to, cutoff, byStartTime, now));
+            total += result[1];
+            if (result[0] < chunkSize) {
+                return total;
+            }
+        }
+        log.info("Reservation sweep {} -> {} stopped after {} chunks, rest goes to the next run", from, to,
+                maxChunksPerRun);
+        return total;
+    }
+
+    /**
+     * @return {candidates selected, rows updated}
+     */
+    private int[] sweepChunk(ReservationStatus from, ReservationStatus to, LocalDateTime cutoff,
+            boolean byStartTime, LocalDateTime now) {
+        PageRequest page = PageRequest.of(0, chunkSize);
+        List<Object[]> candidates = byStartTime
+                ? reservationRepository.findSweepCandidatesStartedBefore(from, cutoff, page)
+                : reservationRepository.findSweepCandidatesEndedBefore(from, cutoff, page);
+        if (candidates.isEmpty()) {
+            return new int[] { 0, 0 };
+        }
+
+        List<Long> ids = candidates.stream().map(row -> (Long) row[0]).toList();
+        int updated = switch (to) {
+            case NO_SHOW -> reservationRepository.markNoShow(ids, from, to, now);
+            case COMPLETED -> reservationRepository.markCompleted(ids, from, to, now);
+            default -> reservationRepository.markExpired(ids, from, to, now);
+        };
+
+        // Zdarzenia tylko dla wierszy faktycznie zmienionych (indeks dostępności, waitlista)
+        Set<Long> changed = updated == ids.size()
+                ? new HashSet<>(ids)
+                : new HashSet<>(reservationRepository.findIdsWithStatus(ids, to));
+        for (Object[] row : candidates) {
+            if (changed.contains((Long) row[0])) {
+                eventPublisher.publishEvent(new ReservationChangedEvent((Long) row[0], (Long) row[1], (Long) row[2],
+                        (LocalDateTime) row[3], (LocalDateTime) row[4], to, from));
+            }
+        }
+
+        return new int[] { candidates.size(), updated };
+    }
+
+    private static Counter transitionCounter(MeterRegistry meterRegistry, String transition) {
+        return Counter.builder("reservations.sweeper.transitions")
+                .description("Reservations moved to a terminal state by the sweeper")
+                .tag("transition", transition)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,59 @@
+package com.dorm.manag.service;
+
+import com.dorm.manag.exception.ServiceOverloadedException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Striped in-process locks keyed by resource id. Bookings of the same
+ * resource are serialized, different resources rarely contend. Cross-node
+ * safety comes from the reservations_no_overlap constraint, not from here.
+ */
+@Component
+public class ResourceLocks {
+
+    private final ReentrantLock[] stripes;
+    private final long waitTimeoutMs;
+
+    public ResourceLocks(@Value("${app.reservations.lock-stripes:64}") int stripeCount,
+            @Value("${app.reservations.lock-wait-timeout-ms:5000}") long waitTimeoutMs) {
+        // Potęga dwójki - indeks przez maskę
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.waitTimeoutMs = waitTimeoutMs;
+    }
+
+    /**
+     * Run the action holding the stripe of the resource. Callers that write to
+     * the database must commit inside the action, so the lock covers the commit.
+     */
+    public <T> T withLock(Long resourceId, Supplier<T> action) {
+        ReentrantLock lock = stripeFor(resourceId);
+        try {
+            if (!lock.tryLock(waitTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new ServiceOverloadedException("Resource is busy, please try again", 1);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for resource lock", e);
+        }
+
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ReentrantLock stripeFor(Long resourceId) {
+        int hash = Long.hashCode(resourceId) * 0x9E3779B9;
+        return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+    }
+}
@@ -0,0 +1,325 @@
+package com.dorm.manag.service;
+
+import com.dorm.manag.dto.ResourceUtilizationDto;
+import com.dorm.manag.entity.ReservableResource;
+import com.dorm.manag.entity.ReservationStatus;
+import com.dorm.manag.entity.ResourceUtilization;
+import com.dorm.manag.event.ReservationChangedEvent;
+import com.dorm.manag.repository.ReservableResourceRepository;
+import com.dorm.manag.repository.ReservationRepository;
+import com.dorm.manag.repository.ResourceUtilizationRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.Stream;
+
+/**
+ * Booked minutes per resource, day and hour (resource_utilization), kept up to
+ * date from ReservationChangedEvent. The hour-of-week heatmap served to admins
+ * is held in memory (7 x 24 counters per resource over a sliding window), so
+ * reading it costs no query; it is reloaded from the aggregate table on a
+ * fixed interval to pick up other nodes and slide the window. The aggregate
+ * can be rebuilt from reservation history with a parallel backfill.
+ */
+@Slf4j
+@Service
+public class ResourceUtilizationService {
+
+    static final String BACKFILL_JOB = "utilization-backfill";
+    private static final int HOURS_PER_WEEK = 7 * 24;
+    private static final String INSERT_SQL = "INSERT INTO resource_utilization " +
+            "(resource_id, bucket_date, bucket_hour, booked_minutes) VALUES (?, ?, ?, ?)";
+    // Jedna instrukcja - dwa eventy dla nowego kubełka nie trafią na uk_resource_utilization_bucket
+    private static final String UPSERT_SQL = INSERT_SQL +
+            " ON CONFLICT (resource_id, bucket_date, bucket_hour) DO UPDATE SET " +
+            "booked_minutes = resource_utilization.booked_minutes + EXCLUDED.booked_minutes";
+
+    private final ResourceUtilizationRepository utilizationRepository;
+    private final ReservableResourceRepository resourceRepository;
+    private final ReservationRepository reservationRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final JobLockService jobLockService;
+    private final AsyncTaskExecutor taskExecutor;
+    private final TransactionTemplate newTransaction;
+
+    @Value("${app.utilization.window-weeks:8}")
+    private int windowWeeks;
+
+    @Value("${app.utilization.lookahead-days:14}")
+    private int lookaheadDays;
+
+    @Value("${app.utilization.backfill.parallelism:4}")
+    private int backfillParallelism;
+
+    @Value("${app.utilization.backfill.batch-size:500}")
+    private int backfillBatchSize;
+
+    @Value("${app.utilization.backfill.lease-minutes:30}")
+    private long backfillLeaseMinutes;
+
+    private volatile Snapshot snapshot = new Snapshot(LocalDate.now(), LocalDate.now(), new ConcurrentHashMap<>());
+    private final AtomicBoolean backfillRunning = new AtomicBoolean();
+    private volatile boolean postgres;
+
+    private record Snapshot(LocalDate from, LocalDate to, Map<Long, AtomicIntegerArray> minutesByResource) {
+    }
+
+    @FunctionalInterface
+    interface BucketConsumer {
+        void accept(LocalDate date, int hour, int minutes);
+    }
+
+    public ResourceUtilizationService(ResourceUtilizationRepository utilizationRepository,
+            ReservableResourceRepository resourceRepository,
+            ReservationRepository reservationRepository,
+            JdbcTemplate jdbcTemplate,
+            JobLockService jobLockService,
+            PlatformTransactionManager transactionManager,
+            @Qualifier("applicationTaskExecutor") AsyncTaskExecutor taskExecutor) {
+        this.utilizationRepository = utilizationRepository;
+        this.resourceRepository = resourceRepository;
+        this.reservationRepository = reservationRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.jobLockService = jobLockService;
+        this.taskExecutor = taskExecutor;
+
+        // Listener działa po commicie - zapis agregatu musi mieć własną transakcję
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @PostConstruct
+    void init() {
+        postgres = "PostgreSQL".equalsIgnoreCase(jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName()));
+        reload();
+    }
+
+    /**
+     * Heatmaps of all resources with bookings in the window, or of one resource
+     */
+    public List<ResourceUtilizationDto> getHeatmaps(Long resourceId) {
+        Snapshot current = snapshot;
+        int[] daysPerWeekday = daysPerWeekday(current.from(), current.to());
+
+        List<ResourceUtilizationDto> result = new ArrayList<>();
+        if (resourceId != null) {
+            ReservableResource resource = resourceRepository.findById(resourceId)
+                    .orElseThrow(() -> new RuntimeException("Resource not found"));
+            result.add(toDto(resource, current, current.minutesByResource().get(resourceId), daysPerWeekday));
+            return result;
+        }
+
+        current.minutesByResource().forEach((id, minutes) -> resourceRepository.findById(id)
+                .ifPresent(resource -> result.add(toDto(resource, current, minutes, daysPerWeekday))));
+        return result;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onReservationChanged(ReservationChangedEvent event) {
+        boolean counted = counts(event.getStatus());
+        boolean wasCounted = event.getPreviousStatus() != null && counts(event.getPreviousStatus());
+        if (counted == wasCounted) {
+            return;
+        }
+        int sign = counted ? 1 : -1;
+        Long resourceId = event.getResourceId();
+
+        try {
+            newTransaction.executeWithoutResult(status -> forEachHourBucket(event.getStartTime(), event.getEndTime(),
+                    (date, hour, minutes) -> addMinutes(resourceId, date, hour, sign * minutes)));
+        } catch (RuntimeException e) {
+            // Statystyka nie może zepsuć rezerwacji - backfill to naprawi
+            log.warn("Failed to update utilization for reservation {}: {}", event.getReservationId(), e.getMessage());
+            return;
+        }
+
+        Snapshot current = snapshot;
+        forEachHourBucket(event.getStartTime(), event.getEndTime(),
+                (date, hour, minutes) -> addToSnapshot(current, resourceId, date, hour, sign * minutes));
+    }
+
+    /**
+     * Reload the in-memory heatmaps from the aggregate table
+     */
+    @Scheduled(fixedDelayString = "${app.utilization.reload-interval-ms:600000}",
+            initialDelayString = "${app.utilization.reload-interval-ms:600000}")
+    public void reload() {
+        LocalDate today = LocalDate.now();
+        Snapshot fresh = new Snapshot(today.minusWeeks(windowWeeks), today.plusDays(lookaheadDays),
+                new ConcurrentHashMap<>());
+
+        for (Object[] row : utilizationRepository.findBucketsBetween(fresh.from(), fresh.to())) {
+            addToSnapshot(fresh, (Long) row[0], (LocalDate) row[1], (Integer) row[2], (Integer) row[3]);
+        }
+
+        // Zmiany z eventów w trakcie ładowania mogą przepaść - nadrobi je następny reload
+        this.snapshot = fresh;
+        log.debug("Utilization heatmaps reloaded for {} resources", fresh.minutesByResource().size());
+    }
+
+    /**
+     * Starts a rebuild of resource_utilization from reservation history.
+     *
+     * @return false if a backfill is already running on this node
+     */
+    public boolean startBackfill() {
+        if (!backfillRunning.compareAndSet(false, true)) {
+            return false;
+        }
+        taskExecutor.execute(() -> {
+            try {
+                jobLockService.runExclusively(BACKFILL_JOB, Duration.ofMinutes(backfillLeaseMinutes), this::backfill);
+            } catch (RuntimeException e) {
+                log.error("Utilization backfill failed: {}", e.getMessage(), e);
+            } finally {
+                backfillRunning.set(false);
+            }
+        });
+        return true;
+    }
+
+    void backfill() {
+        long startedAt = System.currentTimeMillis();
+        List<Long> resourceIds = resourceRepository.findAll().stream().map(ReservableResource::getId).toList();
+
+        // Zasoby rozdzielone na stałą liczbę wątków - pula nie zostanie zalana zadaniami
+        int parallelism = Math.max(1, Math.min(backfillParallelism, resourceIds.size()));
+        List<CompletableFuture<Integer>> slices = new ArrayList<>();
+        for (int slice = 0; slice < parallelism; slice++) {
+            List<Long> ids = new ArrayList<>();
+            for (int i = slice; i < resourceIds.size(); i += parallelism) {
+                ids.add(resourceIds.get(i));
+            }
+            slices.add(CompletableFuture.supplyAsync(() -> {
+                int rows = 0;
+                for (Long id : ids) {
+                    rows += backfillResource(id);
+                }
+                return rows;
+            }, taskExecutor));
+        }
+
+        int rows = slices.stream().mapToInt(CompletableFuture::join).sum();
+        reload();
+
+        log.info("Utilization backfill rebuilt {} buckets for {} resources in {} ms", rows, resourceIds.size(),
+                System.currentTimeMillis() - startedAt);
+    }
+
+    private int backfillResource(Long resourceId) {
+        Integer rows = newTransaction.execute(status -> {
+            utilizationRepository.deleteByResourceId(resourceId);
+
+            Map<LocalDateTime, Integer> buckets = new HashMap<>();
+            try (Stream<Object[]> intervals = reservationRepository.streamBookedIntervals(resourceId)) {
+                intervals.forEach(row -> forEachHourBucket((LocalDateTime) row[0], (LocalDateTime) row[1],
+                        (date, hour, minutes) -> buckets.merge(date.atTime(hour, 0), minutes, Integer::sum)));
+            }
+
+            List<Map.Entry<LocalDateTime, Integer>> entries = new ArrayList<>(buckets.entrySet());
+            jdbcTemplate.batchUpdate(INSERT_SQL, entries, backfillBatchSize, (ps, entry) -> {
+                ps.setLong(1, resourceId);
+                ps.setDate(2, Date.valueOf(entry.getKey().toLocalDate()));
+                ps.setInt(3, entry.getKey().getHour());
+                ps.setInt(4, entry.getValue());
+            });
+            return entries.size();
+        });
+        return rows != null ? rows : 0;
+    }
+
+    private void addMinutes(Long resourceId, LocalDate date, int hour, int delta) {
+        if (postgres) {
+            jdbcTemplate.update(UPSERT_SQL, resourceId, Date.valueOf(date), hour, delta);
+            return;
+        }
+        // Bez ON CONFLICT (H2 w testach) - update, a przy braku wiersza insert
+        if (utilizationRepository.addMinutes(resourceId, date, hour, delta) == 0) {
+            utilizationRepository.save(new ResourceUtilization(null, resourceId, date, hour, delta));
+        }
+    }
+
+    private static void addToSnapshot(Snapshot target, Long resourceId, LocalDate date, int hour, int minutes) {
+        if (date.isBefore(target.from()) || !date.isBefore(target.to())) {
+            return;
+        }
+        target.minutesByResource()
+                .computeIfAbsent(resourceId, id -> new AtomicIntegerArray(HOURS_PER_WEEK))
+                .addAndGet((date.getDayOfWeek().getValue() - 1) * 24 + hour, minutes);
+    }
+
+    /**
+     * Splits [start, end) into clock-hour buckets
+     */
+    static void forEachHourBucket(LocalDateTime start, LocalDateTime end, BucketConsumer consumer) {
+        LocalDateTime cursor = start;
+        while (cursor.isBefore(end)) {
+            LocalDateTime hourEnd = cursor.truncatedTo(ChronoUnit.HOURS).plusHours(1);
+            LocalDateTime segmentEnd = hourEnd.isBefore(end) ? hourEnd : end;
+            int minutes = (int) Duration.between(cursor, segmentEnd).toMinutes();
+            if (minutes > 0) {
+                consumer.accept(cursor.toLocalDate(), cursor.getHour(), minutes);
+            }
+            cursor = segmentEnd;
+        }
+    }
+
+    // Liczą się rezerwacje, które blokowały zasób i nie zostały zwolnione
+    private static boolean counts(ReservationStatus status) {
+        return status.isActive() || status == ReservationStatus.COMPLETED;
+    }
+
+    private static int[] daysPerWeekday(LocalDate from, LocalDate to) {
+        int[] days = new int[7];
+        long totalDays = ChronoUnit.DAYS.between(from, to);
+        for (DayOfWeek day : DayOfWeek.values()) {
+            long offset = (day.getValue() - from.getDayOfWeek().getValue() + 7) % 7;
+            days[day.getValue() - 1] = offset < totalDays ? (int) ((totalDays - offset + 6) / 7) : 0;
+        }
+        return days;
+    }
+
+    private static ResourceUtilizationDto toDto(ReservableResource resource, Snapshot snapshot,
+            AtomicIntegerArray minutes, int[] daysPerWeekday) {
+        int[][] booked = new int[7][24];
+        double[][] occupancy = new double[7][24];
+        for (int day = 0; day < 7; day++) {
+            for (int hour = 0; hour < 24; hour++) {
+                int value = minutes != null ? minutes.get(day * 24 + hour) : 0;
+                booked[day][hour] = value;
+                occupancy[day][hour] = daysPerWeekday[day] > 0
+                        ? Math.min(1.0, value / (60.0 * daysPerWeekday[day]))
+                        : 0.0;
+            }
+        }
+        return new ResourceUtilizationDto(resource.getId(), resource.getName(), resource.getResourceType(),
+                snapshot.from(), snapshot.to(), booked, occupancy);
+    }
+}
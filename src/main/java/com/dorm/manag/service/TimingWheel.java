@@ -0,0 +1,167 @@
+package com.dorm.manag.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hierarchical timing wheel keyed by long ids. Time is counted in ticks; level
+ * 0 has one bucket per tick and every higher level covers 64 times the range
+ * of the one below. An entry is placed on the lowest level that can hold its
+ * deadline and cascades down as the wheel turns, so scheduling, cancelling and
+ * advancing by one tick are O(1) amortized. Not thread-safe on its own.
+ */
+final class TimingWheel {
+
+    private static final int BITS = 6;
+    private static final int WHEEL_SIZE = 1 << BITS;
+    private static final int MASK = WHEEL_SIZE - 1;
+
+    private final List<Entry>[][] buckets;
+    private final Map<Long, Entry> entriesById = new HashMap<>();
+    private long currentTick;
+
+    private static final class Entry {
+        final long id;
+        final long deadlineTick;
+        boolean cancelled;
+
+        Entry(long id, long deadlineTick) {
+            this.id = id;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    TimingWheel(int levels, long startTick) {
+        this.buckets = new List[levels][WHEEL_SIZE];
+        for (int level = 0; level < levels; level++) {
+            for (int slot = 0; slot < WHEEL_SIZE; slot++) {
+                buckets[level][slot] = new ArrayList<>();
+            }
+        }
+        this.currentTick = startTick;
+    }
+
+    /**
+     * Schedules (or reschedules) id at deadlineTick.
+     *
+     * @return false when the deadline is not in the future - the caller should
+     *         fire it right away
+     */
+    boolean schedule(long id, long deadlineTick) {
+        Entry existing = entriesById.get(id);
+        if (existing != null) {
+            if (existing.deadlineTick == deadlineTick) {
+                return true;
+            }
+            existing.cancelled = true;
+            entriesById.remove(id);
+        }
+        if (deadlineTick <= currentTick) {
+            return false;
+        }
+
+        Entry entry = new Entry(id, deadlineTick);
+        place(entry);
+        entriesById.put(id, entry);
+        return true;
+    }
+
+    boolean cancel(long id) {
+        Entry entry = entriesById.remove(id);
+        if (entry == null) {
+            return false;
+        }
+        // Leniwe usuwanie - wpis zostaje w kubełku i jest pomijany
+        entry.cancelled = true;
+        return true;
+    }
+
+    boolean contains(long id) {
+        return entriesById.containsKey(id);
+    }
+
+    int size() {
+        return entriesById.size();
+    }
+
+    long currentTick() {
+        return currentTick;
+    }
+
+    /**
+     * Latest deadline this wheel can hold from the current tick
+     */
+    long maxDeadlineTick() {
+        return currentTick + (1L << (BITS * buckets.length)) - 1;
+    }
+
+    void clear() {
+        for (List<Entry>[] level : buckets) {
+            for (List<Entry> bucket : level) {
+                bucket.clear();
+            }
+        }
+        entriesById.clear();
+    }
+
+    /**
+     * Turns the wheel up to targetTick and returns the ids that came due, in
+     * deadline order
+     */
+    List<Long> advanceTo(long targetTick) {
+        List<Long> expired = new ArrayList<>();
+        while (currentTick < targetTick) {
+            currentTick++;
+
+            // Kaskada: gdy niższy poziom zatoczył koło, rozkładamy kubełek poziomu wyżej
+            int top = 1;
+            while (top < buckets.length && (currentTick & ((1L << (BITS * top)) - 1)) == 0) {
+                top++;
+            }
+            for (int level = top - 1; level >= 1; level--) {
+                List<Entry> bucket = buckets[level][(int) (currentTick >>> (BITS * level)) & MASK];
+                List<Entry> moved = new ArrayList<>(bucket);
+                bucket.clear();
+                for (Entry entry : moved) {
+                    if (entry.cancelled) {
+                        continue;
+                    }
+                    if (entry.deadlineTick <= currentTick) {
+                        fire(entry, expired);
+                    } else {
+                        place(entry);
+                    }
+                }
+            }
+
+            List<Entry> bucket = buckets[0][(int) currentTick & MASK];
+            for (Entry entry : bucket) {
+                if (!entry.cancelled) {
+                    fire(entry, expired);
+                }
+            }
+            bucket.clear();
+        }
+        return expired;
+    }
+
+    private void fire(Entry entry, List<Long> expired) {
+        entriesById.remove(entry.id);
+        expired.add(entry.id);
+    }
+
+    private void place(Entry entry) {
+        long delta = entry.deadlineTick - currentTick;
+        int level = 0;
+        while (level < buckets.length - 1 && delta >= (1L << (BITS * (level + 1)))) {
+            level++;
+        }
+        if (delta >= (1L << (BITS * (level + 1)))) {
+            throw new IllegalArgumentException("Deadline beyond timing wheel range: " + entry.deadlineTick);
+        }
+        buckets[level][(int) (entry.deadlineTick >>> (BITS * level)) & MASK].add(entry);
+    }
+}
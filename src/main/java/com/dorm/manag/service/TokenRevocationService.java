@@ -0,0 +1,140 @@
+package com.dorm.manag.service;
+
+import com.dorm.manag.entity.RevokedToken;
+import com.dorm.manag.repository.RevokedTokenRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * JWT denylist keyed by the jti claim. Revocations are persisted in
+ * revoked_tokens and mirrored in memory as a Bloom filter in front of an
+ * exact set, so the per-request check never touches the database.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TokenRevocationService {
+
+    private final RevokedTokenRepository revokedTokenRepository;
+
+    @Value("${app.security.revocation.expected-tokens:100000}")
+    private long expectedTokens;
+
+    @Value("${app.security.revocation.false-positive-rate:0.001}")
+    private double falsePositiveRate;
+
+    private volatile BloomFilter bloomFilter;
+    private volatile Set<String> revokedJtis;
+    private volatile LocalDateTime lastSync;
+
+    // Unieważnienia z tego węzła, których rebuild() mógł jeszcze nie zobaczyć w bazie (jti -> wygaśnięcie)
+    private final Map<String, LocalDateTime> recentRevocations = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        rebuild();
+    }
+
+    /**
+     * O(1) check: a Bloom filter miss (the common case) answers without
+     * touching the exact set
+     */
+    public boolean isRevoked(String jti) {
+        if (jti == null) {
+            return false;
+        }
+        return bloomFilter.mightContain(jti) && revokedJtis.contains(jti);
+    }
+
+    @Transactional
+    public void revoke(String jti, Long userId, Date expiration) {
+        if (jti == null || expiration == null) {
+            return;
+        }
+
+        LocalDateTime expiresAt = LocalDateTime.ofInstant(expiration.toInstant(), ZoneId.systemDefault());
+        if (!expiresAt.isAfter(LocalDateTime.now())) {
+            return;
+        }
+
+        if (!revokedTokenRepository.existsByJti(jti)) {
+            revokedTokenRepository.save(new RevokedToken(jti, userId, expiresAt));
+        }
+        // Przed remember() - rebuild() w trakcie commitu dołoży jti do nowego filtra
+        recentRevocations.put(jti, expiresAt);
+        remember(jti);
+
+        log.info("Token {} revoked for user {}", jti, userId);
+    }
+
+    /**
+     * Pick up logouts made on other nodes
+     */
+    @Scheduled(fixedDelayString = "${app.security.revocation.sync-interval-ms:30000}")
+    public void syncFromDatabase() {
+        LocalDateTime since = lastSync;
+        LocalDateTime now = LocalDateTime.now();
+        lastSync = now;
+
+        List<String> jtis = revokedTokenRepository.findJtisRevokedSince(since.minusSeconds(5), now);
+        jtis.forEach(this::remember);
+    }
+
+    /**
+     * Drop expired entries. Bloom filters cannot delete, so the in-memory
+     * structures are rebuilt from what is left.
+     */
+    @Scheduled(cron = "${app.security.revocation.purge-cron:0 0 * * * *}")
+    @Transactional
+    public void purgeExpired() {
+        int deleted = revokedTokenRepository.deleteExpired(LocalDateTime.now());
+        rebuild();
+        log.info("Purged {} expired revoked tokens, {} still active", deleted, revokedJtis.size());
+    }
+
+    private void rebuild() {
+        LocalDateTime now = LocalDateTime.now();
+        List<String> activeJtis = revokedTokenRepository.findActiveJtis(now);
+
+        BloomFilter filter = new BloomFilter(Math.max(expectedTokens, activeJtis.size() * 2L), falsePositiveRate);
+        Set<String> jtis = ConcurrentHashMap.newKeySet(activeJtis.size());
+        for (String jti : activeJtis) {
+            filter.put(jti);
+            jtis.add(jti);
+        }
+
+        this.bloomFilter = filter;
+        this.revokedJtis = jtis;
+        this.lastSync = now;
+
+        // Wiersze niezacommitowane w chwili odczytu nie mogą wypaść z nowych struktur
+        Set<String> persisted = new HashSet<>(activeJtis);
+        recentRevocations.forEach((jti, expiresAt) -> {
+            if (persisted.contains(jti) || !expiresAt.isAfter(now)) {
+                recentRevocations.remove(jti, expiresAt);
+            } else {
+                remember(jti);
+            }
+        });
+    }
+
+    private void remember(String jti) {
+        // Najpierw filtr, potem zbiór - isRevoked() nie zobaczy fałszywego "nie"
+        bloomFilter.put(jti);
+        revokedJtis.add(jti);
+    }
+}
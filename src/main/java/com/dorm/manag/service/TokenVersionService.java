@@ -0,0 +1,102 @@
+package com.dorm.manag.service;
+
+import com.dorm.manag.entity.User;
+import com.dorm.manag.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory userId -> tokenVersion map used to revoke JWTs without a DB
+ * round trip per request. A token is accepted only if its "tv" claim matches
+ * the user's current version.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TokenVersionService {
+
+    private static final int UNKNOWN_USER = -1;
+
+    private final UserRepository userRepository;
+
+    private final Map<Long, Integer> tokenVersions = new ConcurrentHashMap<>();
+
+    private volatile LocalDateTime lastRefresh = LocalDateTime.now();
+
+    @PostConstruct
+    void loadTokenVersions() {
+        lastRefresh = LocalDateTime.now();
+        apply(userRepository.findAllTokenVersions());
+        log.info("Loaded token versions for {} users", tokenVersions.size());
+    }
+
+    /**
+     * Pick up versions bumped on other nodes
+     */
+    @Scheduled(fixedDelayString = "${app.security.token-version-refresh-ms:60000}")
+    public void refreshTokenVersions() {
+        LocalDateTime since = lastRefresh;
+        lastRefresh = LocalDateTime.now();
+        apply(userRepository.findTokenVersionsUpdatedSince(since.minusSeconds(5)));
+    }
+
+    public boolean isCurrent(Long userId, Integer tokenVersion) {
+        if (userId == null || tokenVersion == null) {
+            return false;
+        }
+
+        Integer current = tokenVersions.get(userId);
+        if (current == null) {
+            // Użytkownik utworzony po starcie (np. na innym węźle)
+            current = userRepository.findTokenVersionById(userId).orElse(UNKNOWN_USER);
+            if (current != UNKNOWN_USER) {
+                tokenVersions.putIfAbsent(userId, current);
+            }
+        }
+
+        return current.intValue() == tokenVersion.intValue();
+    }
+
+    /**
+     * Invalidate every token issued to the user so far. The caller is
+     * responsible for saving the user.
+     */
+    public void revokeTokens(User user) {
+        int newVersion = user.getCurrentTokenVersion() + 1;
+        user.setTokenVersion(newVersion);
+
+        Long userId = user.getId();
+        if (userId == null) {
+            return;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    tokenVersions.put(userId, newVersion);
+                }
+            });
+        } else {
+            tokenVersions.put(userId, newVersion);
+        }
+
+        log.info("Revoked issued tokens for user {} (token version {})", user.getUsername(), newVersion);
+    }
+
+    private void apply(List<Object[]> rows) {
+        for (Object[] row : rows) {
+            tokenVersions.put((Long) row[0], ((Number) row[1]).intValue());
+        }
+    }
+}
@@ -9,11 +9,13 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
 
 import java.time.LocalDateTime;
 import java.util.Collection;
@@ -23,13 +25,15 @@ import java.util.Optional;
 @Slf4j
 @Service
 @RequiredArgsConstructor
-public class UserService implements UserDetailsService {
+public class UserService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final TokenVersionService tokenVersionService;
+    private final TransactionOperations transactionOperations;
 
+    // Bez @Transactional - przy trafieniu w cache L2 (natural id) nie pobieramy połączenia z puli
     @Override
-    @Transactional
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
@@ -44,12 +48,45 @@ public class UserService implements UserDetailsService {
                 mapRolesToAuthorities(user.getRole()));
     }
 
+    /**
+     * Called by DaoAuthenticationProvider after a successful login when the
+     * stored hash uses an outdated cost; newPassword is already encoded
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = userRepository.findByUsername(userDetails.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + userDetails.getUsername()));
+
+        user.setPassword(newPassword);
+        userRepository.save(user);
+
+        log.info("Password hash upgraded for user {}", user.getUsername());
+
+        return org.springframework.security.core.userdetails.User.withUserDetails(userDetails)
+                .password(newPassword)
+                .build();
+    }
+
     private Collection<? extends GrantedAuthority> mapRolesToAuthorities(Role role) {
         return List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
     }
 
-    @Transactional
+    /**
+     * Create a user from a raw password. Not transactional: hashing waits on
+     * the bounded hash pool and must not hold a pooled connection meanwhile.
+     */
     public User createUser(User user) {
+        user.setPassword(passwordEncoder.encode(user.getPassword()));
+        return transactionOperations.execute(status -> createUserWithEncodedPassword(user));
+    }
+
+    /**
+     * Create a user whose password is already encoded; for callers that hash
+     * before opening their own transaction
+     */
+    @Transactional
+    public User createUserWithEncodedPassword(User user) {
         log.info("Creating new user: {}", user.getUsername());
 
         if (userRepository.existsByUsername(user.getUsername())) {
@@ -60,7 +97,6 @@ public class UserService implements UserDetailsService {
             throw new RuntimeException("Email already exists: " + user.getEmail());
         }
 
-        user.setPassword(passwordEncoder.encode(user.getPassword()));
         user.setCreatedAt(LocalDateTime.now());
         user.setActive(true);
 
@@ -110,9 +146,35 @@ public class UserService implements UserDetailsService {
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
 
         user.setActive(false);
+        tokenVersionService.revokeTokens(user);
         userRepository.save(user);
     }
 
+    @Transactional
+    public User changeRole(Long id, Role role) {
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
+
+        if (user.getRole() != role) {
+            log.info("Changing role of user {} from {} to {}", user.getUsername(), user.getRole(), role);
+            user.setRole(role);
+            tokenVersionService.revokeTokens(user);
+        }
+
+        return userRepository.save(user);
+    }
+
+    public User changePassword(User user, String newPassword) {
+        // Hashowanie przed transakcją - czekanie na pulę haszującą nie blokuje połączenia z bazą
+        String encodedPassword = passwordEncoder.encode(newPassword);
+
+        return transactionOperations.execute(status -> {
+            user.setPassword(encodedPassword);
+            tokenVersionService.revokeTokens(user);
+            return userRepository.save(user);
+        });
+    }
+
     public List<User> findAllStudents() {
         return userRepository.findByRole();
     }
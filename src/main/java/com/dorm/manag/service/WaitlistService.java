@@ -0,0 +1,249 @@
+package com.dorm.manag.service;
+
+import com.dorm.manag.dto.CreateReservationRequest;
+import com.dorm.manag.dto.WaitlistEntryDto;
+import com.dorm.manag.entity.ReservableResource;
+import com.dorm.manag.entity.Reservation;
+import com.dorm.manag.entity.User;
+import com.dorm.manag.entity.WaitlistEntry;
+import com.dorm.manag.entity.WaitlistStatus;
+import com.dorm.manag.event.ReservationChangedEvent;
+import com.dorm.manag.repository.ReservableResourceRepository;
+import com.dorm.manag.repository.WaitlistRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Per-resource waitlist for slots that are already taken. When a blocking
+ * reservation releases its slot (cancelled, no-show, expired) the earliest
+ * waiters whose whole requested slot is now free are turned into
+ * reservations under the same resource lock as regular bookings, one
+ * transaction per entry, and notified.
+ */
+@Slf4j
+@Service
+public class WaitlistService {
+
+    private final WaitlistRepository waitlistRepository;
+    private final ReservableResourceRepository resourceRepository;
+    private final ReservationService reservationService;
+    private final ReservationAvailabilityIndex availabilityIndex;
+    private final ResourceLocks resourceLocks;
+    private final TransactionOperations transactionOperations;
+    private final NotificationService notificationService;
+    private final AsyncTaskExecutor taskExecutor;
+
+    @Value("${app.reservations.waitlist.max-entries-per-user:5}")
+    private int maxEntriesPerUser;
+
+    public WaitlistService(WaitlistRepository waitlistRepository,
+            ReservableResourceRepository resourceRepository,
+            ReservationService reservationService,
+            ReservationAvailabilityIndex availabilityIndex,
+            ResourceLocks resourceLocks,
+            TransactionOperations transactionOperations,
+            NotificationService notificationService,
+            @Qualifier("applicationTaskExecutor") AsyncTaskExecutor taskExecutor) {
+        this.waitlistRepository = waitlistRepository;
+        this.resourceRepository = resourceRepository;
+        this.reservationService = reservationService;
+        this.availabilityIndex = availabilityIndex;
+        this.resourceLocks = resourceLocks;
+        this.transactionOperations = transactionOperations;
+        this.notificationService = notificationService;
+        this.taskExecutor = taskExecutor;
+    }
+
+    @Transactional
+    public WaitlistEntryDto join(CreateReservationRequest request, User user) {
+        ReservableResource resource = resourceRepository.findById(request.getResourceId())
+                .orElseThrow(() -> new RuntimeException("Resource not found"));
+
+        reservationService.validateSlot(resource, request.getStartTime(), request.getEndTime(),
+                request.getNumberOfPeople());
+
+        if (!availabilityIndex.hasConflict(resource.getId(), request.getStartTime(), request.getEndTime())) {
+            throw new RuntimeException("This time slot is free, reserve it directly");
+        }
+
+        if (waitlistRepository.existsWaitingOverlapping(user.getId(), resource.getId(),
+                request.getStartTime(), request.getEndTime())) {
+            throw new RuntimeException("You are already on the waitlist for this time slot");
+        }
+
+        if (waitlistRepository.countWaitingByUser(user.getId()) >= maxEntriesPerUser) {
+            throw new RuntimeException("You can wait for at most " + maxEntriesPerUser + " slots at a time");
+        }
+
+        WaitlistEntry entry = new WaitlistEntry(user, resource, request.getStartTime(), request.getEndTime());
+        entry.setNumberOfPeople(request.getNumberOfPeople());
+        entry.setNotes(request.getNotes());
+        WaitlistEntry savedEntry = waitlistRepository.save(entry);
+
+        log.info("User {} joined waitlist for resource {} at {}", user.getUsername(), resource.getId(),
+                request.getStartTime());
+
+        return convertToDto(savedEntry);
+    }
+
+    @Transactional
+    public WaitlistEntryDto leave(Long id, User user) {
+        WaitlistEntry entry = waitlistRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Waitlist entry not found"));
+
+        if (!entry.getUser().getId().equals(user.getId())) {
+            throw new RuntimeException("You can only leave your own waitlist entries");
+        }
+
+        if (entry.getStatus() != WaitlistStatus.WAITING) {
+            throw new RuntimeException("Waitlist entry is no longer active");
+        }
+
+        entry.cancel();
+        return convertToDto(waitlistRepository.save(entry));
+    }
+
+    @Transactional(readOnly = true)
+    public List<WaitlistEntryDto> getWaitingEntries(User user) {
+        return waitlistRepository.findByUserAndStatus(user.getId(), WaitlistStatus.WAITING).stream()
+                .map(this::convertToDto)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Promotion runs on the task executor - the request that freed the slot
+     * does not wait for it
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onReservationChanged(ReservationChangedEvent event) {
+        if (!event.isSlotReleased() || !event.getEndTime().isAfter(LocalDateTime.now())) {
+            return;
+        }
+        taskExecutor.execute(() -> promote(event.getResourceId(), event.getStartTime(), event.getEndTime()));
+    }
+
+    void promote(Long resourceId, LocalDateTime start, LocalDateTime end) {
+        List<Reservation> promoted;
+        try {
+            promoted = resourceLocks.withLock(resourceId, () -> promoteWaiting(resourceId, start, end));
+        } catch (RuntimeException e) {
+            log.warn("Waitlist promotion for resource {} ({} - {}) failed: {}", resourceId, start, end, e.getMessage());
+            return;
+        }
+
+        for (Reservation reservation : promoted) {
+            notificationService.notifyWaitlistPromoted(
+                    reservation.getUser(),
+                    reservation.getResource().getName(),
+                    reservation.getStartTime().toString());
+        }
+    }
+
+    /**
+     * Caller holds the resource lock. Every entry is promoted in its own
+     * transaction: a failed insert (daily limit, a booking from another node
+     * rejected by reservations_no_overlap) rolls back only that entry.
+     */
+    private List<Reservation> promoteWaiting(Long resourceId, LocalDateTime start, LocalDateTime end) {
+        List<WaitlistEntry> candidates = transactionOperations.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<WaitlistEntry> waiting = new ArrayList<>();
+            for (WaitlistEntry entry : waitlistRepository.findWaitingOverlapping(resourceId, start, end)) {
+                if (entry.getStartTime().isAfter(now)) {
+                    waiting.add(entry);
+                } else {
+                    entry.expire();
+                }
+            }
+            return waiting;
+        });
+
+        List<Reservation> promoted = new ArrayList<>();
+        // Awansowane w tym przebiegu - indeks zobaczy je dopiero po commicie
+        IntervalTree taken = new IntervalTree();
+
+        for (WaitlistEntry entry : candidates) {
+            long entryStart = ReservationAvailabilityIndex.toKey(entry.getStartTime());
+            long entryEnd = ReservationAvailabilityIndex.toKey(entry.getEndTime());
+            if (taken.overlapsAny(entryStart, entryEnd)
+                    || availabilityIndex.hasConflict(resourceId, entry.getStartTime(), entry.getEndTime())) {
+                continue;
+            }
+
+            Reservation reservation;
+            try {
+                reservation = transactionOperations.execute(status -> promoteEntry(entry));
+            } catch (RuntimeException e) {
+                // Np. dzienny limit - zostaje w kolejce na inny zwolniony slot
+                log.debug("Waitlist entry {} not promoted: {}", entry.getId(), e.getMessage());
+                continue;
+            }
+            if (reservation != null) {
+                taken.insert(reservation.getId(), entryStart, entryEnd);
+                promoted.add(reservation);
+                log.info("Waitlist entry {} promoted to reservation {}", entry.getId(), reservation.getId());
+            }
+        }
+
+        return promoted;
+    }
+
+    private Reservation promoteEntry(WaitlistEntry candidate) {
+        WaitlistEntry entry = waitlistRepository.findById(candidate.getId())
+                .filter(current -> current.getStatus() == WaitlistStatus.WAITING)
+                .orElse(null);
+        if (entry == null) {
+            return null;
+        }
+        Reservation reservation = reservationService.insertReservation(toRequest(entry), candidate.getUser());
+        entry.promote(reservation);
+        return reservation;
+    }
+
+    @Scheduled(cron = "${app.reservations.waitlist.expire-cron:0 */15 * * * *}")
+    @Transactional
+    public void expireStartedEntries() {
+        int expired = waitlistRepository.expireStarted(LocalDateTime.now());
+        if (expired > 0) {
+            log.info("Expired {} waitlist entries whose slot has already started", expired);
+        }
+    }
+
+    private CreateReservationRequest toRequest(WaitlistEntry entry) {
+        CreateReservationRequest request = new CreateReservationRequest();
+        request.setResourceId(entry.getResource().getId());
+        request.setStartTime(entry.getStartTime());
+        request.setEndTime(entry.getEndTime());
+        request.setNumberOfPeople(entry.getNumberOfPeople());
+        request.setNotes(entry.getNotes());
+        return request;
+    }
+
+    private WaitlistEntryDto convertToDto(WaitlistEntry entry) {
+        WaitlistEntryDto dto = new WaitlistEntryDto();
+        dto.setId(entry.getId());
+        dto.setResourceId(entry.getResource().getId());
+        dto.setResourceName(entry.getResource().getName());
+        dto.setStartTime(entry.getStartTime());
+        dto.setEndTime(entry.getEndTime());
+        dto.setNumberOfPeople(entry.getNumberOfPeople());
+        dto.setStatus(entry.getStatus());
+        dto.setCreatedAt(entry.getCreatedAt());
+        dto.setPromotedAt(entry.getPromotedAt());
+        dto.setReservationId(entry.getReservationId());
+        return dto;
+    }
+}
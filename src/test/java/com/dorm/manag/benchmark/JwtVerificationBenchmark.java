@@ -0,0 +1,82 @@
+package com.dorm.manag.benchmark;
+
+import com.dorm.manag.config.JwtKeyStore;
+import com.dorm.manag.config.JwtProperties;
+import com.dorm.manag.config.JwtTokenProvider;
+import com.dorm.manag.config.SecurityEventMetrics;
+import com.dorm.manag.entity.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tokens verified per second: the old validateToken + getUsernameFromToken
+ * path (parser rebuilt and signature checked twice per request) against the
+ * cached single-pass parseClaims. Both verify the same RS256 token.
+ * Run main() from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtVerificationBenchmark {
+
+    private JwtKeyStore keyStore;
+    private JwtTokenProvider provider;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        keyStore = new JwtKeyStore(new JwtProperties(), new DefaultResourceLoader());
+        ReflectionTestUtils.invokeMethod(keyStore, "init");
+
+        provider = new JwtTokenProvider(keyStore, new SecurityEventMetrics(new SimpleMeterRegistry(), 60000));
+        ReflectionTestUtils.setField(provider, "jwtExpirationInMs", 86400000);
+        ReflectionTestUtils.invokeMethod(provider, "init");
+
+        User user = new User("student1", "student1@dormitory.edu", "", "Jan", "Kowalski");
+        user.setId(1L);
+        token = provider.generateToken(user);
+    }
+
+    @Benchmark
+    public String legacyDoubleParse() {
+        // validateToken()
+        Jwts.parserBuilder()
+                .setSigningKey(keyStore.getVerificationKey(keyStore.getActiveKid()))
+                .build()
+                .parseClaimsJws(token);
+
+        // getUsernameFromToken()
+        return Jwts.parserBuilder()
+                .setSigningKey(keyStore.getVerificationKey(keyStore.getActiveKid()))
+                .build()
+                .parseClaimsJws(token)
+                .getBody()
+                .getSubject();
+    }
+
+    @Benchmark
+    public String cachedSinglePass() {
+        Claims claims = provider.parseClaims(token);
+        return claims.getSubject();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(JwtVerificationBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,150 @@
+package com.dorm.manag.benchmark;
+
+import com.dorm.manag.service.IntervalTree;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Booking validation in createReservation: the old path (conflict query +
+ * DATE() daily count) against the interval-tree index + range daily count.
+ * Runs against in-memory H2 with the reservations table reduced to the
+ * columns the queries touch. Run main() from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReservationConflictBenchmark {
+
+    private static final int RESOURCES = 50;
+    private static final int USERS = 500;
+    private static final int RESERVATIONS = 20_000;
+    private static final LocalDateTime BASE = LocalDateTime.of(2026, 1, 1, 6, 0);
+
+    private static final String CONFLICT_SQL = "SELECT id FROM reservations WHERE resource_id = ? AND "
+            + "status IN ('CONFIRMED', 'CHECKED_IN') AND start_time < ? AND end_time > ?";
+    private static final String COUNT_BY_DATE_SQL = "SELECT COUNT(*) FROM reservations WHERE user_id = ? AND "
+            + "resource_id = ? AND CAST(start_time AS DATE) = CAST(? AS DATE) AND status NOT IN ('CANCELLED', 'NO_SHOW')";
+    private static final String COUNT_BY_RANGE_SQL = "SELECT COUNT(*) FROM reservations WHERE user_id = ? AND "
+            + "resource_id = ? AND start_time >= ? AND start_time < ? AND status NOT IN ('CANCELLED', 'NO_SHOW')";
+
+    private Connection connection;
+    private PreparedStatement conflictQuery;
+    private PreparedStatement countByDate;
+    private PreparedStatement countByRange;
+    private final Map<Long, IntervalTree> index = new HashMap<>();
+
+    @Setup
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1", "sa", "");
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("CREATE TABLE reservations (id BIGINT PRIMARY KEY, user_id BIGINT NOT NULL, "
+                    + "resource_id BIGINT NOT NULL, start_time TIMESTAMP NOT NULL, end_time TIMESTAMP NOT NULL, "
+                    + "status VARCHAR(20) NOT NULL)");
+            ddl.execute("CREATE INDEX idx_reservations_user_resource_start ON reservations (user_id, resource_id, start_time)");
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO reservations VALUES (?, ?, ?, ?, ?, ?)")) {
+            for (long id = 1; id <= RESERVATIONS; id++) {
+                long resourceId = random.nextLong(RESOURCES);
+                LocalDateTime start = BASE.plusHours(random.nextInt(24 * 90));
+                LocalDateTime end = start.plusMinutes(30 + random.nextInt(4) * 30);
+                String status = random.nextInt(10) < 8 ? "CONFIRMED" : "CANCELLED";
+
+                insert.setLong(1, id);
+                insert.setLong(2, random.nextLong(USERS));
+                insert.setLong(3, resourceId);
+                insert.setTimestamp(4, Timestamp.valueOf(start));
+                insert.setTimestamp(5, Timestamp.valueOf(end));
+                insert.setString(6, status);
+                insert.addBatch();
+
+                if (status.equals("CONFIRMED")) {
+                    index.computeIfAbsent(resourceId, r -> new IntervalTree()).insert(id, key(start), key(end));
+                }
+            }
+            insert.executeBatch();
+        }
+
+        conflictQuery = connection.prepareStatement(CONFLICT_SQL);
+        countByDate = connection.prepareStatement(COUNT_BY_DATE_SQL);
+        countByRange = connection.prepareStatement(COUNT_BY_RANGE_SQL);
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public long queryPath() throws SQLException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long resourceId = random.nextLong(RESOURCES);
+        LocalDateTime start = BASE.plusHours(random.nextInt(24 * 90));
+        LocalDateTime end = start.plusHours(1);
+
+        conflictQuery.setLong(1, resourceId);
+        conflictQuery.setTimestamp(2, Timestamp.valueOf(end));
+        conflictQuery.setTimestamp(3, Timestamp.valueOf(start));
+        long conflicts = 0;
+        try (ResultSet rs = conflictQuery.executeQuery()) {
+            while (rs.next()) {
+                conflicts++;
+            }
+        }
+
+        countByDate.setLong(1, random.nextLong(USERS));
+        countByDate.setLong(2, resourceId);
+        countByDate.setTimestamp(3, Timestamp.valueOf(start));
+        try (ResultSet rs = countByDate.executeQuery()) {
+            rs.next();
+            return conflicts + rs.getLong(1);
+        }
+    }
+
+    @Benchmark
+    public long indexPath() throws SQLException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long resourceId = random.nextLong(RESOURCES);
+        LocalDateTime start = BASE.plusHours(random.nextInt(24 * 90));
+        LocalDateTime end = start.plusHours(1);
+
+        IntervalTree tree = index.get(resourceId);
+        long conflicts = tree != null && tree.overlapsAny(key(start), key(end)) ? 1 : 0;
+
+        LocalDateTime dayStart = start.toLocalDate().atStartOfDay();
+        countByRange.setLong(1, random.nextLong(USERS));
+        countByRange.setLong(2, resourceId);
+        countByRange.setTimestamp(3, Timestamp.valueOf(dayStart));
+        countByRange.setTimestamp(4, Timestamp.valueOf(dayStart.plusDays(1)));
+        try (ResultSet rs = countByRange.executeQuery()) {
+            rs.next();
+            return conflicts + rs.getLong(1);
+        }
+    }
+
+    private static long key(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ReservationConflictBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
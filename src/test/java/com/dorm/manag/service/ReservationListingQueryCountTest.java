@@ -0,0 +1,113 @@
+package com.dorm.manag.service;
+
+import com.dorm.manag.dto.ReservationDto;
+import com.dorm.manag.entity.ReservableResource;
+import com.dorm.manag.entity.Reservation;
+import com.dorm.manag.entity.ResourceType;
+import com.dorm.manag.entity.User;
+import com.dorm.manag.repository.ReservableResourceRepository;
+import com.dorm.manag.repository.ReservationRepository;
+import com.dorm.manag.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Reservation listings must not touch the lazy user/resource associations
+ * row by row - each listing is exactly one SQL statement.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ReservationListingQueryCountTest {
+
+    private static final int RESERVATIONS = 40;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ReservableResourceRepository resourceRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        reservationRepository.deleteAll();
+
+        user = userRepository.findByUsername("listing-user")
+                .orElseGet(() -> userRepository.save(
+                        new User("listing-user", "listing@dorm.test", "secret", "List", "User")));
+
+        List<ReservableResource> resources = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            resources.add(resourceRepository.save(
+                    new ReservableResource("Room " + i, ResourceType.values()[0], "Floor " + i)));
+        }
+
+        LocalDateTime start = LocalDate.now().plusDays(1).atTime(8, 0);
+        List<Reservation> reservations = new ArrayList<>();
+        for (int i = 0; i < RESERVATIONS; i++) {
+            ReservableResource resource = resources.get(i % resources.size());
+            resource.setRequiresApproval(false);
+            LocalDateTime slot = start.plusHours(i);
+            reservations.add(new Reservation(user, resource, slot, slot.plusHours(1)));
+        }
+        reservationRepository.saveAll(reservations);
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @Test
+    void userReservationsUseSingleStatement() {
+        List<ReservationDto> result = countStatements(() -> reservationService.getUserReservations(user));
+
+        assertEquals(RESERVATIONS, result.size());
+        assertEquals("List User", result.get(0).getUserFullName());
+    }
+
+    @Test
+    void upcomingReservationsUseSingleStatement() {
+        List<ReservationDto> result = countStatements(() -> reservationService.getUpcomingReservations());
+
+        assertEquals(RESERVATIONS, result.size());
+    }
+
+    @Test
+    void allReservationsPageUsesSingleStatement() {
+        List<ReservationDto> result = countStatements(
+                () -> reservationService.getAllReservations(null, 200).getItems());
+
+        assertEquals(RESERVATIONS, result.size());
+    }
+
+    private List<ReservationDto> countStatements(Supplier<List<ReservationDto>> listing) {
+        statistics.clear();
+        List<ReservationDto> result = listing.get();
+        assertEquals(1, statistics.getPrepareStatementCount(), "SQL statements executed");
+        return result;
+    }
+}
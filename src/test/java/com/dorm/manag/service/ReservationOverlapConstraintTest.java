@@ -0,0 +1,182 @@
+package com.dorm.manag.service;
+
+import com.dorm.manag.config.ReservationConstraintInitializer;
+import com.dorm.manag.dto.CreateReservationRequest;
+import com.dorm.manag.entity.ReservableResource;
+import com.dorm.manag.entity.Reservation;
+import com.dorm.manag.entity.ResourceType;
+import com.dorm.manag.entity.User;
+import com.dorm.manag.event.ReservationChangedEvent;
+import com.dorm.manag.repository.ReservableResourceRepository;
+import com.dorm.manag.repository.ReservationRepository;
+import com.dorm.manag.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Two ReservationService instances stand in for two nodes: each has its own
+ * ResourceLocks and availability index, so nothing in-process keeps them
+ * apart. Only the reservations_no_overlap constraint in a real Postgres can
+ * prevent double bookings between them.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Testcontainers(disabledWithoutDocker = true)
+class ReservationOverlapConstraintTest {
+
+    private static final int THREADS_PER_NODE = 16;
+    private static final int SLOTS = 8;
+    private static final String ALREADY_RESERVED = "Resource is already reserved for this time slot";
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void postgresProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+        registry.add("spring.datasource.driver-class-name", POSTGRES::getDriverClassName);
+        registry.add("spring.jpa.database-platform", () -> "org.hibernate.dialect.PostgreSQLDialect");
+    }
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private ReservableResourceRepository resourceRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ReservationConstraintInitializer constraintInitializer;
+
+    private ReservableResource resource;
+    private List<User> users;
+
+    @BeforeEach
+    void setUp() {
+        reservationRepository.deleteAll();
+
+        ReservableResource laundry = new ReservableResource("Pralka 1", ResourceType.values()[0], "Piwnica");
+        laundry.setMinReservationDuration(null);
+        laundry.setMaxReservationDuration(null);
+        laundry.setMaxReservationsPerUserPerDay(Integer.MAX_VALUE);
+        laundry.setRequiresApproval(false);
+        resource = resourceRepository.save(laundry);
+
+        users = new ArrayList<>();
+        for (int t = 0; t < 2 * THREADS_PER_NODE; t++) {
+            String username = "overlap-student" + t;
+            users.add(userRepository.findByUsername(username)
+                    .orElseGet(() -> userRepository.save(
+                            new User(username, username + "@dorm.test", "secret", "Jan", "Kowalski"))));
+        }
+    }
+
+    @Test
+    void twoNodesRacingForTheSameSlotsNeverDoubleBook() throws Exception {
+        assertTrue(constraintInitializer.isInstalled(), "reservations_no_overlap must be installed on Postgres");
+
+        // Każdy "węzeł" ma własne blokady i własny indeks - widzi tylko swoje rezerwacje
+        List<ReservationService> nodes = List.of(newNode(), newNode());
+
+        LocalDateTime firstSlot = LocalDate.now().plusDays(1).atTime(8, 0);
+        ExecutorService pool = Executors.newFixedThreadPool(2 * THREADS_PER_NODE);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger rejected = new AtomicInteger();
+        Queue<Throwable> unexpected = new ConcurrentLinkedQueue<>();
+
+        for (int t = 0; t < 2 * THREADS_PER_NODE; t++) {
+            ReservationService node = nodes.get(t % nodes.size());
+            User user = users.get(t);
+
+            List<Integer> order = new ArrayList<>();
+            for (int slot = 0; slot < SLOTS; slot++) {
+                order.add(slot);
+            }
+            Collections.shuffle(order);
+
+            pool.submit(() -> {
+                start.await();
+                for (int slot : order) {
+                    CreateReservationRequest request = new CreateReservationRequest();
+                    request.setResourceId(resource.getId());
+                    request.setStartTime(firstSlot.plusHours(slot));
+                    request.setEndTime(firstSlot.plusHours(slot + 1));
+                    try {
+                        node.createReservation(request, user);
+                    } catch (RuntimeException e) {
+                        if (ALREADY_RESERVED.equals(e.getMessage())) {
+                            rejected.incrementAndGet();
+                        } else {
+                            unexpected.add(e);
+                        }
+                    }
+                }
+                return null;
+            });
+        }
+
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(120, TimeUnit.SECONDS));
+
+        assertTrue(unexpected.isEmpty(), () -> "unexpected failures: " + unexpected);
+
+        // setUp czyści tabelę - wszystkie rezerwacje dotyczą tego zasobu
+        Map<LocalDateTime, Long> bookingsPerSlot = reservationRepository.findAll().stream()
+                .collect(Collectors.groupingBy(Reservation::getStartTime, Collectors.counting()));
+        assertEquals(SLOTS, bookingsPerSlot.size());
+        bookingsPerSlot.forEach((slot, count) -> assertEquals(1L, count, "double booking at " + slot));
+        assertEquals(2 * THREADS_PER_NODE * SLOTS - SLOTS, rejected.get());
+    }
+
+    private ReservationService newNode() {
+        ReservationAvailabilityIndex index = new ReservationAvailabilityIndex(reservationRepository);
+        index.rebuild();
+        return new ReservationService(
+                reservationRepository,
+                resourceRepository,
+                notificationService,
+                index,
+                event -> index.onReservationChanged((ReservationChangedEvent) event),
+                new ResourceLocks(16, 10_000),
+                transactionTemplate,
+                constraintInitializer);
+    }
+}
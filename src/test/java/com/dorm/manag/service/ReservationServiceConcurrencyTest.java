@@ -0,0 +1,164 @@
+package com.dorm.manag.service;
+
+import com.dorm.manag.config.ReservationConstraintInitializer;
+import com.dorm.manag.dto.CreateReservationRequest;
+import com.dorm.manag.entity.ReservableResource;
+import com.dorm.manag.entity.Reservation;
+import com.dorm.manag.entity.ResourceType;
+import com.dorm.manag.entity.User;
+import com.dorm.manag.event.ReservationChangedEvent;
+import com.dorm.manag.repository.ReservableResourceRepository;
+import com.dorm.manag.repository.ReservationRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Many threads race for the same few slots of one resource; every slot must
+ * end up booked exactly once. Covers the in-process ResourceLocks, with and
+ * without the availability index answering "free" on its own - the cross-node
+ * reservations_no_overlap constraint itself is Postgres-specific and is only
+ * reported as installed here.
+ */
+class ReservationServiceConcurrencyTest {
+
+    private static final int THREADS = 64;
+    private static final int SLOTS = 8;
+
+    @Test
+    void concurrentBookingsNeverDoubleBookASlot() throws Exception {
+        Race race = race(false);
+
+        assertEquals(SLOTS, race.bookingsPerSlot().size());
+        race.bookingsPerSlot().forEach((slot, count) -> assertEquals(1L, count, "double booking at " + slot));
+        assertEquals(THREADS * SLOTS - SLOTS, race.rejected());
+    }
+
+    @Test
+    void concurrentBookingsThroughTheIndexNeverDoubleBookASlot() throws Exception {
+        Race race = race(true);
+
+        assertEquals(SLOTS, race.bookingsPerSlot().size());
+        race.bookingsPerSlot().forEach((slot, count) -> assertEquals(1L, count, "double booking at " + slot));
+        assertEquals(THREADS * SLOTS - SLOTS, race.rejected());
+        // Wolne sloty rozstrzyga sam indeks - baza potwierdza tylko zgłoszone konflikty
+        assertEquals(race.rejected(), race.conflictQueries());
+    }
+
+    private record Race(Map<LocalDateTime, Long> bookingsPerSlot, int rejected, int conflictQueries) {
+    }
+
+    private Race race(boolean constraintInstalled) throws Exception {
+        ReservableResource resource = new ReservableResource("Pralka 1", ResourceType.LAUNDRY, "Piwnica");
+        resource.setId(1L);
+        resource.setMinReservationDuration(null);
+        resource.setMaxReservationDuration(null);
+        resource.setMaxReservationsPerUserPerDay(Integer.MAX_VALUE);
+        resource.setRequiresApproval(false);
+
+        Queue<Reservation> saved = new ConcurrentLinkedQueue<>();
+        AtomicLong ids = new AtomicLong();
+
+        ReservationRepository reservationRepository = mock(ReservationRepository.class);
+        when(reservationRepository.countUserReservationsForResourceBetween(anyLong(), anyLong(), any(), any()))
+                .thenReturn(0L);
+        when(reservationRepository.saveAndFlush(any(Reservation.class))).thenAnswer(invocation -> {
+            Reservation reservation = invocation.getArgument(0);
+            // Poszerza okno wyścigu między sprawdzeniem a zapisem
+            Thread.sleep(2);
+            reservation.setId(ids.incrementAndGet());
+            saved.add(reservation);
+            return reservation;
+        });
+        // Potwierdzenie konfliktu "z bazy" - zapisane dotąd rezerwacje
+        AtomicInteger conflictQueries = new AtomicInteger();
+        when(reservationRepository.findConflictingReservations(anyLong(), any(), any())).thenAnswer(invocation -> {
+            conflictQueries.incrementAndGet();
+            LocalDateTime start = invocation.getArgument(1);
+            LocalDateTime end = invocation.getArgument(2);
+            return saved.stream()
+                    .filter(r -> r.getStartTime().isBefore(end) && r.getEndTime().isAfter(start))
+                    .toList();
+        });
+
+        ReservableResourceRepository resourceRepository = mock(ReservableResourceRepository.class);
+        when(resourceRepository.findById(1L)).thenReturn(Optional.of(resource));
+
+        ReservationAvailabilityIndex index = new ReservationAvailabilityIndex(reservationRepository);
+
+        ReservationConstraintInitializer constraintInitializer = mock(ReservationConstraintInitializer.class);
+        when(constraintInitializer.isInstalled()).thenReturn(constraintInstalled);
+
+        ReservationService service = new ReservationService(
+                reservationRepository,
+                resourceRepository,
+                mock(NotificationService.class),
+                index,
+                event -> index.onReservationChanged((ReservationChangedEvent) event),
+                new ResourceLocks(16, 10_000),
+                TransactionOperations.withoutTransaction(),
+                constraintInitializer);
+
+        LocalDateTime firstSlot = LocalDateTime.now().plusDays(1).withHour(8).withMinute(0).withSecond(0).withNano(0);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger rejected = new AtomicInteger();
+
+        for (int t = 0; t < THREADS; t++) {
+            User user = new User("student" + t, "student" + t + "@dormitory.edu", "", "Jan", "Kowalski");
+            user.setId((long) t + 1);
+
+            List<Integer> order = new ArrayList<>();
+            for (int slot = 0; slot < SLOTS; slot++) {
+                order.add(slot);
+            }
+            Collections.shuffle(order);
+
+            pool.submit(() -> {
+                start.await();
+                for (int slot : order) {
+                    CreateReservationRequest request = new CreateReservationRequest();
+                    request.setResourceId(1L);
+                    request.setStartTime(firstSlot.plusHours(slot));
+                    request.setEndTime(firstSlot.plusHours(slot + 1));
+                    try {
+                        service.createReservation(request, user);
+                    } catch (RuntimeException e) {
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(60, TimeUnit.SECONDS));
+
+        Map<LocalDateTime, Long> bookingsPerSlot = saved.stream()
+                .collect(Collectors.groupingBy(Reservation::getStartTime, Collectors.counting()));
+        return new Race(bookingsPerSlot, rejected.get(), conflictQueries.get());
+    }
+}